@@ -4,9 +4,13 @@ import java.awt.Color;
 import java.util.List;
 import java.util.Random;
 
-import org.pfaa.chemica.ChemicaBlocks;
+import org.pfaa.chemica.fluid.AtmosphereField;
 import org.pfaa.chemica.fluid.FluidMaterial;
+import org.pfaa.chemica.fluid.HeatSourceIndex;
+import org.pfaa.chemica.fluid.IndustrialFluidIndex;
 import org.pfaa.chemica.fluid.IndustrialFluids;
+import org.pfaa.chemica.fluid.PhaseChangeQueue;
+import org.pfaa.chemica.fluid.SoilPollution;
 import org.pfaa.chemica.model.Compound.Compounds;
 import org.pfaa.chemica.model.ConditionProperties;
 import org.pfaa.chemica.model.Constants;
@@ -41,11 +45,13 @@ public class IndustrialFluidBlock extends BlockFluidClassic {
 
 	private ConditionProperties properties;
 	private IndustrialMaterial material;
+	private float oxygenContent;
 	
 	public IndustrialFluidBlock(Fluid fluid) {
 		super(fluid, getBlockMaterial(fluid));
 		this.material = IndustrialFluids.getMaterial(fluid);
 		this.properties = IndustrialFluids.getProperties(fluid); 
+		this.oxygenContent = IndustrialFluids.getOxygenContent(fluid);
 		if (properties.opaque) {
 			this.lightOpacity = 255;
 		}
@@ -133,17 +139,77 @@ public class IndustrialFluidBlock extends BlockFluidClassic {
 				this.properties.hazard.instability > 0;
 	}
 	
+	@Override
+	public void onBlockAdded(World world, int x, int y, int z) {
+		super.onBlockAdded(world, x, y, z);
+		IndustrialFluidIndex.INSTANCE.set(world, x, y, z, true);
+		this.onFluidChanged(world, x, y, z);
+		if (this.getFluid().isGaseous()) {
+			AtmosphereField.INSTANCE.onGasChanged(world, x, y, z, this, -1, world.getBlockMetadata(x, y, z));
+		}
+		this.tryToChangePhase(world, x, y, z);
+	}
+
+	@Override
+	public void breakBlock(World world, int x, int y, int z, Block block, int meta) {
+		super.breakBlock(world, x, y, z, block, meta);
+		IndustrialFluidIndex.INSTANCE.set(world, x, y, z, false);
+		this.onFluidChanged(world, x, y, z);
+		if (this.getFluid().isGaseous()) {
+			AtmosphereField.INSTANCE.onGasChanged(world, x, y, z, this, meta, -1);
+		} else if (this.pollutesSoil()) {
+			SoilPollution.INSTANCE.removeSource(world, x, y, z);
+		}
+	}
+	
+	/* Volume of gas in a block with the given meta, in blocks */
+	public float getGasVolume(int meta) {
+		return this.getVolume(meta);
+	}
+	
+	/* Share of the block filled with fluid at the given meta */
+	public float getVolume(int meta) {
+		return (float)(this.quantaPerBlock - meta) / this.quantaPerBlock;
+	}
+	
+	/* Inverse of getVolume(), keeping at least the thinnest layer */
+	public int getMetaForVolume(float volume) {
+		return getMetaForVolume(volume, this.quantaPerBlock);
+	}
+	
+	public static int getMetaForVolume(float volume, int quantaPerBlock) {
+		int quanta = Math.max(1, Math.round(volume * quantaPerBlock));
+		return Math.max(0, Math.min(quantaPerBlock - quanta, quantaPerBlock - 1));
+	}
+	
+	/* 
+	 * Eye-level state depends on the block and its vertical neighbours, so we let 
+	 * anything caching it know that those sections changed. 
+	 */
+	private void onFluidChanged(World world, int x, int y, int z) {
+		IndustrialFluidIndex.INSTANCE.touch(world, x, y, z);
+		IndustrialFluidIndex.INSTANCE.touch(world, x, y - 1, z);
+		IndustrialFluidIndex.INSTANCE.touch(world, x, y + 1, z);
+	}
+	
 	@Override
     public void updateTick(World world, int x, int y, int z, Random rand)
     {
+		this.tryToChangePhase(world, x, y, z);
 		if (this.getFluid().isGaseous()) {
 			this.updateGas(world, x, y, z, rand);
 		} else {
 		    if (this.pollutesSoil()) {
-		        this.polluteSoil(world, x, y, z, rand);
+		        SoilPollution.INSTANCE.addSource(world, x, y, z);
 		    }
 		    this.tryToCatchFireFromLava(world, x, y, z, rand);
+			/* most ticks of a settled liquid change nothing, and should not dirty the index */
+			Block oldBlock = world.getBlock(x, y, z);
+			int oldMeta = world.getBlockMetadata(x, y, z);
 			super.updateTick(world, x, y, z, rand);
+			if (world.getBlock(x, y, z) != oldBlock || world.getBlockMetadata(x, y, z) != oldMeta) {
+				this.onFluidChanged(world, x, y, z);
+			}
 		}
     }
 
@@ -217,7 +283,10 @@ public class IndustrialFluidBlock extends BlockFluidClassic {
                 }
                 else
                 {
+                    int oldMeta = world.getBlockMetadata(x, y, z);
                     world.setBlockMetadataWithNotify(x, y, z, quantaPerBlock - expQuanta, 3);
+                    this.onFluidChanged(world, x, y, z);
+                    AtmosphereField.INSTANCE.onGasChanged(world, x, y, z, this, oldMeta, quantaPerBlock - expQuanta);
                     world.scheduleBlockUpdate(x, y, z, this, tickRate);
                     world.notifyBlocksOfNeighborChange(x, y, z, this);
                 }
@@ -229,7 +298,10 @@ public class IndustrialFluidBlock extends BlockFluidClassic {
         }
         else if (source)
         {
+        	int oldMeta = world.getBlockMetadata(x, y, z);
         	world.setBlockMetadataWithNotify(x, y, z, 0, 2);
+        	this.onFluidChanged(world, x, y, z);
+        	AtmosphereField.INSTANCE.onGasChanged(world, x, y, z, this, oldMeta, 0);
         }
  
         boolean[] canFlowLaterally = new boolean[] { 
@@ -295,12 +367,14 @@ public class IndustrialFluidBlock extends BlockFluidClassic {
 	
 	@Override
 	protected void flowIntoBlock(World world, int x, int y, int z, int meta) {
-		Block block = world.getBlock(x, y, z);
-		if (block == Blocks.torch || block.getMaterial() == Material.fire || block.getMaterial() == Material.lava) {
-			this.tryToIgnite(world, x, y, z);
-		} else {
-			super.flowIntoBlock(world, x, y, z, meta);
+		if (HeatSourceIndex.INSTANCE.contains(world, x, y, z)) {
+			Block block = world.getBlock(x, y, z);
+			if (block == Blocks.torch || block.getMaterial() == Material.fire || block.getMaterial() == Material.lava) {
+				this.tryToIgnite(world, x, y, z);
+				return;
+			}
 		}
+		super.flowIntoBlock(world, x, y, z, meta);
 	}
 
 	private boolean canDisplaceInDirection(World world, int x, int y, int z, ForgeDirection dir) {
@@ -395,27 +469,40 @@ public class IndustrialFluidBlock extends BlockFluidClassic {
 	}
 	
     public static IndustrialFluidBlock atEyeLevel(EntityLivingBase entity) {
-    	double j0 = entity.posY + (entity.worldObj.isRemote ? 0 : entity.getEyeHeight());
+    	double j0 = getEyeY(entity);
 		int i = MathHelper.floor_double(entity.posX);
         int j = MathHelper.floor_double(j0);
         int k = MathHelper.floor_double(entity.posZ);
+        if (IndustrialFluidIndex.INSTANCE.isSectionEmpty(entity.worldObj, i, j, k)) {
+        	return null;
+        }
     	Block block = entity.worldObj.getBlock(i, j, k);
     	if (block instanceof IndustrialFluidBlock) {
     		IndustrialFluidBlock fluidBlock = (IndustrialFluidBlock)block;
-    		float filled = fluidBlock.getFilledPercentage(entity.worldObj, i, j, k);
-    		float density = fluidBlock.getFluid().getDensity();
-    		Block nbor = entity.worldObj.getBlock(i, j - (density > 0 ? -1 : 1), k);
-    		if (nbor == block) {
-    			filled = 1.0F;
-    		}
+    		float filled = fluidBlock.getEyeLevelFill(entity.worldObj, i, j, k);
     		if (positionInFilledPortion(j0, filled)) {
     			return fluidBlock;
     		}
     	}
     	return null;
 	}
+    
+    public static double getEyeY(EntityLivingBase entity) {
+    	return entity.posY + (entity.worldObj.isRemote ? 0 : entity.getEyeHeight());
+    }
 
-	private static boolean positionInFilledPortion(double j0, float filled) {
+    /* Like getFilledPercentage(), except that a block with fluid beyond its surface counts as full */
+    public float getEyeLevelFill(World world, int i, int j, int k) {
+		float filled = this.getFilledPercentage(world, i, j, k);
+		float density = this.getFluid().getDensity();
+		Block nbor = world.getBlock(i, j - (density > 0 ? -1 : 1), k);
+		if (nbor == this) {
+			filled = 1.0F;
+		}
+		return filled;
+    }
+
+	public static boolean positionInFilledPortion(double j0, float filled) {
 		if (filled < 0)
         {
             filled *= -1;
@@ -427,23 +514,6 @@ public class IndustrialFluidBlock extends BlockFluidClassic {
         }
 	}
 	
-	private void polluteSoil(World world, int x, int y, int z, Random rand)
-    {
-        for (int xi = x - 4; xi <= x + 4; ++xi)
-        {
-            for (int yi = y - 1; yi <= y; ++yi)
-            {
-                for (int zi = z - 4; zi <= z + 4; ++zi)
-                {
-                    Block block = world.getBlock(xi, yi, zi);
-                    if (block == Blocks.farmland || (block.getMaterial() == Material.ground && rand.nextInt(5) == 1)) {
-                        world.setBlock(xi, yi, zi, ChemicaBlocks.POLLUTED_SOIL);
-                    }
-                }
-            }
-        }
-    }
-
 	@Override
 	public boolean canSustainPlant(IBlockAccess world, int x, int y, int z, ForgeDirection direction, IPlantable plantable)
 	{
@@ -453,7 +523,9 @@ public class IndustrialFluidBlock extends BlockFluidClassic {
 	/* Gases are ignited by lava itself, we handle liquids here */
 	private void tryToCatchFireFromLava(World world, int x, int y, int z, Random rand)
     {
-	    if (this.properties.hazard.flammability > 0 && world.isAirBlock(x, y + 1, z)) {
+	    if (this.properties.hazard.flammability > 0 && 
+	    		HeatSourceIndex.INSTANCE.anyWithin(world, x, y, z, 1) && 
+	    		world.isAirBlock(x, y + 1, z)) {
 	        for (int xi = x - 1; xi <= x + 1; ++xi)
 	        {
 	            for (int zi = z - 1; zi <= z + 1; ++zi)
@@ -472,13 +544,18 @@ public class IndustrialFluidBlock extends BlockFluidClassic {
 		return this.material;
 	}
 	
-    @SuppressWarnings("unused")
-	private void tryToChangePhase(World world, int x, int y, int z, Random rand) {
-		// TODO: if we have a chemical, check condition at this position and 
-		//       check for phase change, at rate inversely proportional to 
-		//       the heat capacity and enthalpy of transition. This will require
-		//       having a solid block for every chemical. Currently, we are not
-		//       sure if we will even have fluid blocks for arbitrary chemicals.
+	public float getOxygenContent() {
+		return this.oxygenContent;
+	}
+	
+	/* 
+	 * Whether and how fast we change phase depends on the surroundings, at a rate inversely 
+	 * proportional to the enthalpy of transition, so we leave that to the queue. 
+	 */
+	private void tryToChangePhase(World world, int x, int y, int z) {
+		if (PhaseChangeQueue.INSTANCE.canChangePhase(this)) {
+			PhaseChangeQueue.INSTANCE.enqueue(world, x, y, z);
+		}
 	}
 
 }
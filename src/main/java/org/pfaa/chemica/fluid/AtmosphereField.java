@@ -0,0 +1,273 @@
+package org.pfaa.chemica.fluid;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.pfaa.chemica.block.IndustrialFluidBlock;
+import org.pfaa.chemica.model.Compound.Compounds;
+import org.pfaa.chemica.model.Constants;
+import org.pfaa.chemica.model.Mixture;
+import org.pfaa.chemica.model.MixtureComponent;
+import org.pfaa.chemica.registration.EnvironmentRegistry;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import net.minecraft.block.Block;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.event.terraingen.PopulateChunkEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fluids.FluidContainerRegistry;
+import net.minecraftforge.fluids.FluidStack;
+
+/*
+ * Coarse model of the atmosphere of each dimension, in cells of 4x4x4 blocks.
+ *
+ * Each cell tracks how much of its volume is taken by industrial gases, and how much
+ * of that is O2, so that breathability is an O(1) lookup, and a room slowly filling with
+ * gas becomes dangerous as a whole, rather than block by block.
+ *
+ * Gas blocks update the cells incrementally as they appear, flow and dissipate. Gas that is
+ * vented without a block (e.g., from hoods) is added directly, and decays with a half-life,
+ * standing in for the dissipation a block would have. Cells are only materialized for sections
+ * that IndustrialFluidIndex reports as holding fluid; everything else is background atmosphere.
+ *
+ * Only server worlds are modeled.
+ */
+public class AtmosphereField {
+
+	public static final AtmosphereField INSTANCE = new AtmosphereField();
+
+	private static final int CELL_SHIFT = 2;
+	private static final int CELL_VOLUME = 64;
+	private static final int CELLS_PER_SECTION = 4 * 4 * 4;
+	private static final int SECTIONS_PER_CHUNK = 16;
+	private static final int VENTED_HALF_LIFE = 600; // ticks
+
+	private Map<World, WorldAtmosphere> worlds = new HashMap<World, WorldAtmosphere>();
+
+	private AtmosphereField() {
+	}
+
+	private static class WorldAtmosphere {
+		final LongHashMap chunks = new LongHashMap();
+		final float oxygenContent;
+
+		WorldAtmosphere(World world) {
+			this.oxygenContent = determineOxygenContent(EnvironmentRegistry.getAtmosphere(world));
+		}
+	}
+
+	private static class ChunkAtmosphere {
+		final boolean[] scanned = new boolean[SECTIONS_PER_CHUNK];
+		/* volumes are in blocks */
+		final float[] gas = new float[SECTIONS_PER_CHUNK * CELLS_PER_SECTION];
+		final float[] oxygen = new float[SECTIONS_PER_CHUNK * CELLS_PER_SECTION];
+		float[] ventedGas;
+		float[] ventedOxygen;
+		long[] ventedTimes;
+	}
+
+	private static float determineOxygenContent(Mixture atmosphere) {
+		MixtureComponent comp = atmosphere.getComponent(Compounds.O2);
+		return comp == null ? 0 : (float)(comp.weight / atmosphere.getTotalWeight());
+	}
+
+	private WorldAtmosphere getWorldAtmosphere(World world) {
+		WorldAtmosphere atmosphere = this.worlds.get(world);
+		if (atmosphere == null) {
+			atmosphere = new WorldAtmosphere(world);
+			this.worlds.put(world, atmosphere);
+		}
+		return atmosphere;
+	}
+
+	private ChunkAtmosphere getChunk(World world, int x, int z, boolean create) {
+		WorldAtmosphere atmosphere = this.getWorldAtmosphere(world);
+		long key = ChunkCoordIntPair.chunkXZ2Int(x >> 4, z >> 4);
+		ChunkAtmosphere chunk = (ChunkAtmosphere)atmosphere.chunks.getValueByKey(key);
+		if (chunk == null && create) {
+			chunk = new ChunkAtmosphere();
+			atmosphere.chunks.add(key, chunk);
+		}
+		return chunk;
+	}
+
+	private static int getCellIndex(int x, int y, int z) {
+		return (y >> CELL_SHIFT) << 4 | ((z & 15) >> CELL_SHIFT) << 2 | ((x & 15) >> CELL_SHIFT);
+	}
+
+	private void scan(World world, ChunkAtmosphere atmosphere, int x, int y, int z) {
+		int sectionY = y >> 4;
+		atmosphere.scanned[sectionY] = true;
+		Chunk chunk = world.getChunkFromBlockCoords(x, z);
+		ExtendedBlockStorage storage = chunk.getBlockStorageArray()[sectionY];
+		if (storage == null || storage.isEmpty()) {
+			return;
+		}
+		for (int sy = 0; sy < 16; sy++) {
+			for (int sz = 0; sz < 16; sz++) {
+				for (int sx = 0; sx < 16; sx++) {
+					Block block = storage.getBlockByExtId(sx, sy, sz);
+					if (block instanceof IndustrialFluidBlock && ((IndustrialFluidBlock)block).getFluid().isGaseous()) {
+						IndustrialFluidBlock gasBlock = (IndustrialFluidBlock)block;
+						float volume = gasBlock.getGasVolume(storage.getExtBlockMetadata(sx, sy, sz));
+						int cell = getCellIndex(sx, (sectionY << 4) + sy, sz);
+						atmosphere.gas[cell] += volume;
+						atmosphere.oxygen[cell] += volume * gasBlock.getOxygenContent();
+					}
+				}
+			}
+		}
+	}
+
+	private ChunkAtmosphere getScannedChunk(World world, int x, int y, int z) {
+		ChunkAtmosphere atmosphere = this.getChunk(world, x, z, true);
+		if (!atmosphere.scanned[y >> 4]) {
+			this.scan(world, atmosphere, x, y, z);
+		}
+		return atmosphere;
+	}
+
+	/* Called by gas blocks; a meta of -1 means there was, or is, no block */
+	public void onGasChanged(World world, int x, int y, int z, IndustrialFluidBlock block, int oldMeta, int newMeta) {
+		if (world.isRemote || y < 0 || y >= SECTIONS_PER_CHUNK * 16) {
+			return;
+		}
+		ChunkAtmosphere atmosphere = this.getChunk(world, x, z, false);
+		if (atmosphere == null || !atmosphere.scanned[y >> 4]) {
+			return; // picked up when the section is scanned
+		}
+		float volume = (newMeta < 0 ? 0 : block.getGasVolume(newMeta)) -
+				(oldMeta < 0 ? 0 : block.getGasVolume(oldMeta));
+		int cell = getCellIndex(x, y, z);
+		atmosphere.gas[cell] = Math.max(0, atmosphere.gas[cell] + volume);
+		atmosphere.oxygen[cell] = Math.max(0, atmosphere.oxygen[cell] + volume * block.getOxygenContent());
+	}
+
+	/* Releases gas into the atmosphere without placing a block */
+	public void vent(World world, int x, int y, int z, FluidStack gas) {
+		if (world.isRemote || gas == null || y < 0 || y >= SECTIONS_PER_CHUNK * 16) {
+			return;
+		}
+		ChunkAtmosphere atmosphere = this.getChunk(world, x, z, true);
+		int cell = getCellIndex(x, y, z);
+		if (atmosphere.ventedGas == null) {
+			atmosphere.ventedGas = new float[atmosphere.gas.length];
+			atmosphere.ventedOxygen = new float[atmosphere.gas.length];
+			atmosphere.ventedTimes = new long[atmosphere.gas.length];
+		}
+		this.decayVented(world, atmosphere, cell);
+		float volume = (float)gas.amount / FluidContainerRegistry.BUCKET_VOLUME;
+		atmosphere.ventedGas[cell] += volume;
+		atmosphere.ventedOxygen[cell] += volume * IndustrialFluids.getOxygenContent(gas.getFluid());
+	}
+
+	private void decayVented(World world, ChunkAtmosphere atmosphere, int cell) {
+		long now = world.getTotalWorldTime();
+		long elapsed = now - atmosphere.ventedTimes[cell];
+		atmosphere.ventedTimes[cell] = now;
+		if (elapsed > 0 && atmosphere.ventedGas[cell] > 0) {
+			float factor = (float)Math.pow(0.5, (double)elapsed / VENTED_HALF_LIFE);
+			atmosphere.ventedGas[cell] *= factor;
+			atmosphere.ventedOxygen[cell] *= factor;
+		}
+	}
+
+	public float getBackgroundOxygenContent(World world) {
+		return this.getWorldAtmosphere(world).oxygenContent;
+	}
+
+	/* Returns null when the position is known to hold only background atmosphere */
+	private ChunkAtmosphere getCellChunk(World world, int x, int y, int z) {
+		if (world.isRemote || y < 0 || y >= SECTIONS_PER_CHUNK * 16 || 
+				!world.getChunkProvider().chunkExists(x >> 4, z >> 4)) {
+			return null;
+		}
+		if (IndustrialFluidIndex.INSTANCE.isSectionEmpty(world, x, y, z)) {
+			ChunkAtmosphere atmosphere = this.getChunk(world, x, z, false);
+			return atmosphere == null || atmosphere.ventedGas == null ? null : atmosphere;
+		}
+		return this.getScannedChunk(world, x, y, z);
+	}
+
+	private float getGasVolume(World world, ChunkAtmosphere atmosphere, int cell) {
+		float gas = atmosphere.gas[cell];
+		if (atmosphere.ventedGas != null) {
+			this.decayVented(world, atmosphere, cell);
+			gas += atmosphere.ventedGas[cell];
+		}
+		return gas;
+	}
+
+	private float getOxygenVolume(ChunkAtmosphere atmosphere, int cell) {
+		float oxygen = atmosphere.oxygen[cell];
+		if (atmosphere.ventedOxygen != null) {
+			oxygen += atmosphere.ventedOxygen[cell];
+		}
+		return oxygen;
+	}
+
+	/* Fraction of the air in the cell around the given position that is O2 */
+	public float getOxygenContent(World world, int x, int y, int z) {
+		float background = this.getBackgroundOxygenContent(world);
+		ChunkAtmosphere atmosphere = this.getCellChunk(world, x, y, z);
+		if (atmosphere == null) {
+			return background;
+		}
+		int cell = getCellIndex(x, y, z);
+		float gas = this.getGasVolume(world, atmosphere, cell);
+		float oxygen = this.getOxygenVolume(atmosphere, cell);
+		if (gas > CELL_VOLUME) {
+			oxygen *= CELL_VOLUME / gas;
+			gas = CELL_VOLUME;
+		}
+		return (oxygen + (CELL_VOLUME - gas) * background) / CELL_VOLUME;
+	}
+
+	public double getOxygenPartialPressure(World world, int x, int y, int z) {
+		return this.getOxygenContent(world, x, y, z) * Constants.STANDARD_PRESSURE;
+	}
+
+	/* Partial pressure of the industrial gases, other than O2, that displaced the normal atmosphere */
+	public double getAsphyxiantPartialPressure(World world, int x, int y, int z) {
+		ChunkAtmosphere atmosphere = this.getCellChunk(world, x, y, z);
+		if (atmosphere == null) {
+			return 0;
+		}
+		int cell = getCellIndex(x, y, z);
+		float gas = this.getGasVolume(world, atmosphere, cell);
+		float asphyxiant = Math.max(0, gas - this.getOxygenVolume(atmosphere, cell));
+		return Math.min(1, asphyxiant / CELL_VOLUME) * Constants.STANDARD_PRESSURE;
+	}
+
+	private void invalidateChunk(World world, int chunkX, int chunkZ) {
+		WorldAtmosphere atmosphere = this.worlds.get(world);
+		if (atmosphere != null) {
+			atmosphere.chunks.remove(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+		}
+	}
+
+	@SubscribeEvent
+	public void onChunkUnload(ChunkEvent.Unload event) {
+		Chunk chunk = event.getChunk();
+		this.invalidateChunk(chunk.worldObj, chunk.xPosition, chunk.zPosition);
+	}
+
+	@SubscribeEvent
+	public void onPopulateChunk(PopulateChunkEvent.Post event) {
+		for (int dx = 0; dx <= 1; dx++) {
+			for (int dz = 0; dz <= 1; dz++) {
+				this.invalidateChunk(event.world, event.chunkX + dx, event.chunkZ + dz);
+			}
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		this.worlds.remove(event.world);
+	}
+}
@@ -1,8 +1,12 @@
 package org.pfaa.chemica.fluid;
 
+import org.pfaa.chemica.block.IndustrialFluidBlock;
+
+import net.minecraft.block.Block;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.MathHelper;
 import net.minecraft.world.World;
 import net.minecraftforge.common.IExtendedEntityProperties;
 
@@ -12,8 +16,20 @@ public class FluidRespirationProperties implements IExtendedEntityProperties
 	
     public final static int FULL_AIR_LEVEL = 300;
    
+    public final static float ATMOSPHERIC_OXYGEN_CONTENT = 0.209F;
+   
     private int airLevel = FULL_AIR_LEVEL;
     
+    /* 
+     * Respiration context, cached until the eye moves to another block, or the 
+     * industrial fluids in its section change (see IndustrialFluidIndex).
+     */
+    private int eyeX, eyeY, eyeZ;
+    private int eyeRevision;
+    private IndustrialFluidBlock eyeBlock;
+    private float eyeFill;
+    private float eyeOxygenContent = ATMOSPHERIC_OXYGEN_CONTENT;
+    
     public int getAirLevel() {
     	return airLevel;
     }
@@ -22,6 +38,57 @@ public class FluidRespirationProperties implements IExtendedEntityProperties
     	this.airLevel = airLevel;
     }
 
+    private void updateEyeContext(EntityLivingBase entity) {
+    	double j0 = IndustrialFluidBlock.getEyeY(entity);
+    	int i = MathHelper.floor_double(entity.posX);
+        int j = MathHelper.floor_double(j0);
+        int k = MathHelper.floor_double(entity.posZ);
+        int revision = IndustrialFluidIndex.INSTANCE.getRevision(entity.worldObj, i, j, k);
+        if (revision != 0 && revision == this.eyeRevision && 
+        		i == this.eyeX && j == this.eyeY && k == this.eyeZ) {
+        	return;
+        }
+        this.eyeX = i;
+        this.eyeY = j;
+        this.eyeZ = k;
+        this.eyeRevision = revision;
+        this.eyeBlock = null;
+        this.eyeOxygenContent = ATMOSPHERIC_OXYGEN_CONTENT;
+        if (revision != 0 && IndustrialFluidIndex.INSTANCE.isSectionEmpty(entity.worldObj, i, j, k)) {
+        	return;
+        }
+        Block block = entity.worldObj.getBlock(i, j, k);
+        if (block instanceof IndustrialFluidBlock) {
+        	IndustrialFluidBlock fluidBlock = (IndustrialFluidBlock)block;
+        	this.eyeBlock = fluidBlock;
+        	this.eyeFill = fluidBlock.getEyeLevelFill(entity.worldObj, i, j, k);
+        	this.eyeOxygenContent = getBreathableOxygenContent(fluidBlock, entity.worldObj, i, j, k);
+        }
+    }
+    
+    private static float getBreathableOxygenContent(IndustrialFluidBlock block, World world, int i, int j, int k) {
+    	float oxygenContent = block.getOxygenContent();
+    	if (block.getFluid().isGaseous()) {
+            float filled = Math.abs(block.getFilledPercentage(world, i, j, k));
+            oxygenContent = oxygenContent * filled + ATMOSPHERIC_OXYGEN_CONTENT * (1 - filled);
+    	}
+        return oxygenContent;
+    }
+    
+    public IndustrialFluidBlock getFluidBlockAtEyeLevel(EntityLivingBase entity) {
+    	this.updateEyeContext(entity);
+    	if (this.eyeBlock != null && 
+    			IndustrialFluidBlock.positionInFilledPortion(IndustrialFluidBlock.getEyeY(entity), this.eyeFill)) {
+    		return this.eyeBlock;
+    	}
+    	return null;
+    }
+    
+    /* Only meaningful after getFluidBlockAtEyeLevel() returns a block */
+    public float getOxygenContentAtEyeLevel() {
+    	return this.eyeOxygenContent;
+    }
+    
     @Override
     public void saveNBTData(NBTTagCompound parCompound)
     {
@@ -46,14 +113,16 @@ public class FluidRespirationProperties implements IExtendedEntityProperties
     {
     }
    
+	public static FluidRespirationProperties get(EntityLivingBase entity) {
+		return (FluidRespirationProperties)entity.getExtendedProperties(IDENTIFIER);
+	}
+	
 	public static void setAirLevel(EntityLivingBase entity, int airLevel) {
-		IExtendedEntityProperties props = entity.getExtendedProperties(IDENTIFIER);
-		((FluidRespirationProperties)props).setAirLevel(airLevel);
+		get(entity).setAirLevel(airLevel);
 	}
 	
 	public static int getAirLevel(EntityLivingBase entity) {
-		IExtendedEntityProperties props = entity.getExtendedProperties(IDENTIFIER);
-		return ((FluidRespirationProperties)props).getAirLevel();
+		return get(entity).getAirLevel();
 	}
 	
 	public static void register(EntityLivingBase entity) {
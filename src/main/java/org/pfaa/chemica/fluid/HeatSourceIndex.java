@@ -0,0 +1,58 @@
+package org.pfaa.chemica.fluid;
+
+import org.pfaa.chemica.block.IndustrialFluidBlock;
+import org.pfaa.chemica.model.Constants;
+import org.pfaa.core.world.BlockSectionIndex;
+import org.pfaa.core.world.WorldAccessAdapter;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import net.minecraft.block.Block;
+import net.minecraft.block.material.Material;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+
+/*
+ * Per-section index of blocks hot enough to ignite things: fire, lava (including hot 
+ * industrial liquids), torches, lit furnaces and hot industrial gases.
+ * 
+ * Most of these are vanilla blocks, so we follow block changes through a world listener.
+ */
+public class HeatSourceIndex extends BlockSectionIndex {
+
+	public static final HeatSourceIndex INSTANCE = new HeatSourceIndex();
+	
+	private HeatSourceIndex() {
+	}
+	
+	@Override
+	protected boolean isIndexed(Block block, int meta) {
+		Material material = block.getMaterial();
+		if (material == Material.fire || material == Material.lava || 
+				block == Blocks.torch || block == Blocks.lit_furnace) {
+			return true;
+		}
+		return block instanceof IndustrialFluidBlock && 
+				((IndustrialFluidBlock)block).getFluid().getTemperature() > Constants.FLESH_IGNITION_TEMPERATURE;
+	}
+
+	@SubscribeEvent
+	public void onWorldLoad(WorldEvent.Load event) {
+		if (!event.world.isRemote) {
+			event.world.addWorldAccess(new HeatSourceListener(event.world));
+		}
+	}
+	
+	private class HeatSourceListener extends WorldAccessAdapter {
+		private final World world;
+		
+		public HeatSourceListener(World world) {
+			this.world = world;
+		}
+
+		@Override
+		public void markBlockForUpdate(int x, int y, int z) {
+			update(this.world, x, y, z);
+		}
+	}
+}
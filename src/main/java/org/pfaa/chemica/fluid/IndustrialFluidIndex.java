@@ -0,0 +1,26 @@
+package org.pfaa.chemica.fluid;
+
+import org.pfaa.chemica.block.IndustrialFluidBlock;
+import org.pfaa.core.world.BlockSectionIndex;
+
+import net.minecraft.block.Block;
+
+/*
+ * Per-section index of industrial fluid blocks, so that per-entity and per-block
+ * hot paths can skip the (vast majority of) sections that hold no industrial fluid.
+ * 
+ * Maintained by IndustrialFluidBlock when blocks are added and removed.
+ */
+public class IndustrialFluidIndex extends BlockSectionIndex {
+
+	public static final IndustrialFluidIndex INSTANCE = new IndustrialFluidIndex();
+	
+	private IndustrialFluidIndex() {
+	}
+	
+	@Override
+	protected boolean isIndexed(Block block, int meta) {
+		return block instanceof IndustrialFluidBlock;
+	}
+
+}
@@ -35,9 +35,30 @@ import net.minecraftforge.fluids.FluidStack;
 
 public class IndustrialFluids {
 	private static Map<Fluid,IndustrialMaterial> fluidToMaterial = new HashMap<Fluid, IndustrialMaterial>();
+	private static Map<Fluid,Float> fluidToOxygenContent = new HashMap<Fluid, Float>();
 	
 	public static void registerFluidMaterial(Fluid fluid, IndustrialMaterial material) {
 		fluidToMaterial.put(fluid, material);
+		fluidToOxygenContent.put(fluid, determineOxygenContent(fluid, material));
+	}
+	
+	/* Fraction of breathable O2 in a gas, so that respiration need not scan mixtures */
+	private static float determineOxygenContent(Fluid fluid, IndustrialMaterial material) {
+		if (!fluid.isGaseous()) return 0;
+		if (material == Compounds.O2) {
+			return 1.0F;
+		} else if (material instanceof Mixture) {
+			MixtureComponent comp = ((Mixture)material).getComponent(Compounds.O2);
+			if (comp != null) {
+				return (float)comp.weight;
+			}
+		}
+		return 0;
+	}
+	
+	public static float getOxygenContent(Fluid fluid) {
+		Float content = fluidToOxygenContent.get(fluid);
+		return content == null ? 0 : content;
 	}
 	
 	public static IndustrialMaterial getMaterial(Fluid fluid) {
@@ -112,6 +133,19 @@ public class IndustrialFluids {
 		return fluid;
 	}
 	
+	/* Like getFluid(), except that it never creates a fluid, so it is safe to call after startup */
+	public static Fluid findFluid(IndustrialMaterial material, State state) {
+		for (Map.Entry<Fluid, IndustrialMaterial> entry : fluidToMaterial.entrySet()) {
+			if (entry.getValue() == material && getState(entry.getKey()) == state) {
+				return entry.getKey();
+			}
+		}
+		if (material == Compounds.H2O && state == State.LIQUID) {
+			return FluidRegistry.WATER;
+		}
+		return null;
+	}
+
 	private static Fluid createFluidForCondition(
 			String name, IndustrialMaterial material, Condition condition) {
 		ConditionProperties props = material.getProperties(condition);
@@ -0,0 +1,234 @@
+package org.pfaa.chemica.fluid;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.pfaa.chemica.block.IndustrialFluidBlock;
+import org.pfaa.chemica.model.Condition;
+import org.pfaa.chemica.model.ConditionProperties;
+import org.pfaa.chemica.model.IndustrialMaterial;
+import org.pfaa.chemica.model.State;
+import org.pfaa.chemica.model.Vaporization;
+import org.pfaa.core.world.PackedBlockPos;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent.Phase;
+import cpw.mods.fml.common.gameevent.TickEvent.WorldTickEvent;
+import net.minecraft.block.Block;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fluids.Fluid;
+
+/*
+ * Boils industrial liquids and condenses industrial gases, according to the ThermalField.
+ *
+ * Fluid blocks enqueue themselves as they tick, and a fixed number of queued positions are
+ * checked each world tick. A block that is out of equilibrium converts with a probability
+ * proportional to the heat its surroundings can supply (heat capacity times the temperature
+ * difference) relative to the enthalpy of the transition; otherwise it stays queued.
+ *
+ * Only transitions to existing fluid blocks are considered. Freezing would need a solid block
+ * for every chemical, which we do not have.
+ */
+public class PhaseChangeQueue {
+
+	public static final PhaseChangeQueue INSTANCE = new PhaseChangeQueue();
+
+	private static final int CHANGES_PER_TICK = 16;
+	private static final int INITIAL_CAPACITY = 64;
+	private static final double DEFAULT_RATE = 0.002; // per K, when thermo data is missing
+	private static final int LIQUID_LEVELS = 8; // of vanilla liquids, and forge fluid blocks by default
+
+	private static final Transitions NONE = new Transitions(null, null);
+
+	private Map<World, WorldQueue> worlds = new HashMap<World, WorldQueue>();
+	private Map<IndustrialFluidBlock, Transitions> transitions = new HashMap<IndustrialFluidBlock, Transitions>();
+
+	private PhaseChangeQueue() {
+	}
+
+	private static class WorldQueue {
+		long[] positions = new long[INITIAL_CAPACITY];
+		int head;
+		int size;
+		final LongHashMap queued = new LongHashMap();
+
+		void push(long pos) {
+			if (this.size == this.positions.length) {
+				long[] grown = new long[this.positions.length * 2];
+				for (int i = 0; i < this.size; i++) {
+					grown[i] = this.positions[(this.head + i) % this.positions.length];
+				}
+				this.positions = grown;
+				this.head = 0;
+			}
+			this.positions[(this.head + this.size) % this.positions.length] = pos;
+			this.size++;
+		}
+
+		long pop() {
+			long pos = this.positions[this.head];
+			this.head = (this.head + 1) % this.positions.length;
+			this.size--;
+			return pos;
+		}
+	}
+
+	private static class PhaseChange {
+		final Block target;
+		final int temperature;
+		final double rate;
+
+		PhaseChange(Block target, int temperature, double rate) {
+			this.target = target;
+			this.temperature = temperature;
+			this.rate = rate;
+		}
+	}
+
+	private static class Transitions {
+		final PhaseChange warmer;
+		final PhaseChange colder;
+
+		Transitions(PhaseChange warmer, PhaseChange colder) {
+			this.warmer = warmer;
+			this.colder = colder;
+		}
+	}
+
+	private Transitions getTransitions(IndustrialFluidBlock block) {
+		Transitions result = this.transitions.get(block);
+		if (result == null) {
+			result = resolveTransitions(block);
+			this.transitions.put(block, result);
+		}
+		return result;
+	}
+
+	private static Transitions resolveTransitions(IndustrialFluidBlock block) {
+		IndustrialMaterial material = block.getIndustrialMaterial();
+		Vaporization vaporization = material == null ? null : material.getVaporization();
+		if (vaporization == null) {
+			return NONE;
+		}
+		State state = IndustrialFluids.getState(block.getFluid());
+		int temperature = vaporization.getTemperature();
+		PhaseChange change = null;
+		if (state == State.LIQUID) {
+			change = resolvePhaseChange(material, State.LIQUID, State.GAS, temperature);
+			return change == null ? NONE : new Transitions(change, null);
+		} else if (state == State.GAS) {
+			change = resolvePhaseChange(material, State.GAS, State.LIQUID, temperature);
+			return change == null ? NONE : new Transitions(null, change);
+		}
+		return NONE;
+	}
+
+	private static PhaseChange resolvePhaseChange(IndustrialMaterial material, State from, State to, int temperature) {
+		Fluid fluid = IndustrialFluids.findFluid(material, to);
+		Block target = fluid == null ? null : fluid.getBlock();
+		if (target == null) {
+			return null;
+		}
+		if (target == Blocks.water) {
+			target = Blocks.flowing_water;
+		}
+		/* heat capacity is in J/(mol K), and the enthalpy change in kJ/mol */
+		double enthalpy = Math.abs(material.getEnthalpyChange(from, to)) * 1000;
+		ConditionProperties props = material.getProperties(new Condition(temperature), from);
+		double heatCapacity = props == null ? Double.NaN : props.thermo.heatCapacity;
+		double rate = heatCapacity / enthalpy;
+		if (Double.isNaN(rate) || Double.isInfinite(rate) || rate <= 0) {
+			rate = DEFAULT_RATE;
+		}
+		return new PhaseChange(target, temperature, rate);
+	}
+
+	public boolean canChangePhase(IndustrialFluidBlock block) {
+		return this.getTransitions(block) != NONE;
+	}
+
+	public void enqueue(World world, int x, int y, int z) {
+		if (world.isRemote) {
+			return;
+		}
+		WorldQueue queue = this.worlds.get(world);
+		if (queue == null) {
+			queue = new WorldQueue();
+			this.worlds.put(world, queue);
+		}
+		long pos = PackedBlockPos.pack(x, y, z);
+		if (!queue.queued.containsItem(pos)) {
+			queue.queued.add(pos, Boolean.TRUE);
+			queue.push(pos);
+		}
+	}
+
+	public int getQueuedCount(World world) {
+		WorldQueue queue = this.worlds.get(world);
+		return queue == null ? 0 : queue.size;
+	}
+
+	@SubscribeEvent
+	public void onWorldTick(WorldTickEvent event) {
+		if (event.phase != Phase.END || event.world.isRemote) {
+			return;
+		}
+		WorldQueue queue = this.worlds.get(event.world);
+		if (queue == null) {
+			return;
+		}
+		for (int changes = Math.min(CHANGES_PER_TICK, queue.size); changes > 0; changes--) {
+			long pos = queue.pop();
+			queue.queued.remove(pos);
+			int x = PackedBlockPos.getX(pos), y = PackedBlockPos.getY(pos), z = PackedBlockPos.getZ(pos);
+			if (this.shouldRetry(event.world, x, y, z)) {
+				queue.queued.add(pos, Boolean.TRUE);
+				queue.push(pos);
+			}
+		}
+	}
+
+	/* Returns true when the block is out of equilibrium, but did not change this time */
+	private boolean shouldRetry(World world, int x, int y, int z) {
+		if (!world.getChunkProvider().chunkExists(x >> 4, z >> 4)) {
+			return false;
+		}
+		Block block = world.getBlock(x, y, z);
+		if (!(block instanceof IndustrialFluidBlock)) {
+			return false;
+		}
+		Transitions transitions = this.getTransitions((IndustrialFluidBlock)block);
+		int temperature = ThermalField.INSTANCE.getTemperature(world, x, y, z);
+		PhaseChange change;
+		if (transitions.warmer != null && temperature >= transitions.warmer.temperature) {
+			change = transitions.warmer;
+		} else if (transitions.colder != null && temperature < transitions.colder.temperature) {
+			change = transitions.colder;
+		} else {
+			return false;
+		}
+		double p = change.rate * (Math.abs(temperature - change.temperature) + 1);
+		if (world.rand.nextDouble() >= p) {
+			return true;
+		}
+		float volume = ((IndustrialFluidBlock)block).getVolume(world.getBlockMetadata(x, y, z));
+		world.setBlock(x, y, z, change.target, getTargetMeta(change.target, volume), 3);
+		return false;
+	}
+
+	/* The new phase takes the same share of the block as the old, so a source stays a source */
+	private static int getTargetMeta(Block target, float volume) {
+		if (target instanceof IndustrialFluidBlock) {
+			return ((IndustrialFluidBlock)target).getMetaForVolume(volume);
+		}
+		return IndustrialFluidBlock.getMetaForVolume(volume, LIQUID_LEVELS);
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		this.worlds.remove(event.world);
+	}
+}
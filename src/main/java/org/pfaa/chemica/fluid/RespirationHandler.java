@@ -4,10 +4,6 @@ import java.util.Random;
 
 import org.lwjgl.opengl.GL11;
 import org.pfaa.chemica.block.IndustrialFluidBlock;
-import org.pfaa.chemica.model.Compound.Compounds;
-import org.pfaa.chemica.model.IndustrialMaterial;
-import org.pfaa.chemica.model.Mixture;
-import org.pfaa.chemica.model.MixtureComponent;
 
 import cpw.mods.fml.common.eventhandler.SubscribeEvent;
 import cpw.mods.fml.common.gameevent.TickEvent.Phase;
@@ -47,7 +43,6 @@ public class RespirationHandler {
 	public static final RespirationHandler INSTANCE = new RespirationHandler();
 	
 	private static final float MIN_PERMISSIBLE_OXYGEN_CONTENT = 0.195F;
-	private static final float ATMOSPHERIC_OXYGEN_CONTENT = 0.209F;
 
 	private int playerAir;
 	
@@ -56,7 +51,8 @@ public class RespirationHandler {
 
 	@SubscribeEvent
 	public void onEntityConstructing(EntityConstructing event) {
-		if (event.entity instanceof EntityLivingBase && !(event.entity instanceof EntityPlayer))
+		/* Players keep their air in the vanilla property, but still cache their respiration context */
+		if (event.entity instanceof EntityLivingBase)
 		{
 			FluidRespirationProperties.register((EntityLivingBase)event.entity);
 	    }
@@ -83,15 +79,18 @@ public class RespirationHandler {
     		// TODO: if liquid is health hazard, apply negative effects in a separate handler;
     		//       this requires an algorithm like Entity.handleWaterMovement().
     		//       if fluid is extremely hot (>320K), we should just apply damage. 
-    		IndustrialFluidBlock block = IndustrialFluidBlock.atEyeLevel(entity);
+    		FluidRespirationProperties props = FluidRespirationProperties.get(entity);
+    		IndustrialFluidBlock block = props.getFluidBlockAtEyeLevel(entity);
+    		boolean submerged = block != null && !block.getFluid().isGaseous();
     		/* We handle gases here, as well as force water breathing entities to drown in liquids */
-    		if (block != null && (block.getFluid().isGaseous() || entity.canBreatheUnderwater())) {
+    		if (!submerged || entity.canBreatheUnderwater()) {
     			// TODO: apply health effects for gases here
     			// TODO: as part of the above, handle oxygen _over_dose
     		    // TODO: handle H2O content of liquids for water breathing mobs
-        		float oxygenContent = getBreathableOxygenContent(block, entity);
+        		float oxygenContent = submerged ? props.getOxygenContentAtEyeLevel() : 
+        			getOxygenContentAtEyeLevel(entity, props, block);
         		if (oxygenContent < MIN_PERMISSIBLE_OXYGEN_CONTENT) {
-	        		Random rand = new Random();
+	        		Random rand = entity.worldObj.rand;
 	        		setAirLevel(entity, decreaseAirSupply(entity, initAirLevel, rand));
 		        	if (getAirLevel(entity) == -20) {
 		        		setAirLevel(entity, 0);
@@ -101,11 +100,14 @@ public class RespirationHandler {
 			            } else {
 			            	addOxygenDeprivationEffects(entity, oxygenContent, 20);
 			            }
-		            } else if (!block.getFluid().isGaseous()) {
+		            } else if (submerged) {
 	            		generateBubbleParticles(entity, rand);
 		            }
+		        	return;
         		}
-        	} else if (!(entity instanceof EntityPlayer)) {
+        	} 
+    		if (!(entity instanceof EntityPlayer) && 
+        			getAirLevel(entity) != FluidRespirationProperties.FULL_AIR_LEVEL) {
         		setAirLevel(entity, FluidRespirationProperties.FULL_AIR_LEVEL);
     		}
         }
@@ -177,37 +179,27 @@ public class RespirationHandler {
     }
 
     private static float getOxygenContentAtEyeLevel(EntityLivingBase entity) {
-    	IndustrialFluidBlock block = IndustrialFluidBlock.atEyeLevel(entity);
-    	return block != null ? getBreathableOxygenContent(block) : 
-    		ATMOSPHERIC_OXYGEN_CONTENT;  
-	}
-
-	private static float getBreathableOxygenContent(IndustrialFluidBlock block) {
-		if (!block.getFluid().isGaseous()) return 0;
-		IndustrialMaterial material = block.getIndustrialMaterial();
-		if (material == Compounds.O2) {
-			return 1.0F;
-		} else if (material instanceof Mixture) {
-			for (MixtureComponent comp : ((Mixture)material).getComponents()) {
-				if (comp.material == Compounds.O2)
-					return (float)comp.weight;
-			}
-		}
-		return 0;
-	}
-	
-	private static float getBreathableOxygenContent(IndustrialFluidBlock block, EntityLivingBase entity) {
-    	float oxygenContent = getBreathableOxygenContent(block);
-    	if (block.getFluid().isGaseous()) {
-    		double j0 = entity.posY + (entity.worldObj.isRemote ? 0 : entity.getEyeHeight());
-    		int i = MathHelper.floor_double(entity.posX);
-            int j = MathHelper.floor_double(j0);
-            int k = MathHelper.floor_double(entity.posZ);
-            float filled = Math.abs(block.getFilledPercentage(entity.worldObj, i, j, k));
-            oxygenContent = oxygenContent * filled + ATMOSPHERIC_OXYGEN_CONTENT * (1 - filled);
+    	FluidRespirationProperties props = FluidRespirationProperties.get(entity);
+    	IndustrialFluidBlock block = props.getFluidBlockAtEyeLevel(entity);
+    	if (block != null && !block.getFluid().isGaseous()) {
+    		return props.getOxygenContentAtEyeLevel();
     	}
-        return oxygenContent;
+    	return getOxygenContentAtEyeLevel(entity, props, block);
 	}
+    
+    /* Outside of liquids, we breathe the atmosphere field, which is only modeled on the server */
+    private static float getOxygenContentAtEyeLevel(EntityLivingBase entity, FluidRespirationProperties props, 
+    		IndustrialFluidBlock block) {
+    	World world = entity.worldObj;
+    	if (world.isRemote) {
+    		return block != null ? props.getOxygenContentAtEyeLevel() : 
+    			AtmosphereField.INSTANCE.getBackgroundOxygenContent(world);
+    	}
+    	int i = MathHelper.floor_double(entity.posX);
+    	int j = MathHelper.floor_double(IndustrialFluidBlock.getEyeY(entity));
+    	int k = MathHelper.floor_double(entity.posZ);
+    	return AtmosphereField.INSTANCE.getOxygenContent(world, i, j, k);
+    }
 
     @SideOnly(Side.CLIENT)
 	private void renderAirBar(ScaledResolution res) {
@@ -243,6 +235,9 @@ public class RespirationHandler {
         int i = MathHelper.floor_double(entity.posX);
         int j = MathHelper.floor_double(entity.posY);
         int k = MathHelper.floor_double(entity.posZ);
+        if (IndustrialFluidIndex.INSTANCE.isSectionEmpty(world, i, j, k)) {
+        	return false;
+        }
         Block block = world.getBlock(i, j, k);
         return block instanceof IndustrialFluidBlock;
     }
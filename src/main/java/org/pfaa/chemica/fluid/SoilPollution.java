@@ -0,0 +1,214 @@
+package org.pfaa.chemica.fluid;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pfaa.chemica.ChemicaBlocks;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent.Phase;
+import cpw.mods.fml.common.gameevent.TickEvent.WorldTickEvent;
+import net.minecraft.block.Block;
+import net.minecraft.block.material.Material;
+import net.minecraft.init.Blocks;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+/*
+ * Spreads soil pollution from hazardous liquids at a bounded rate.
+ *
+ * Every source records, once, the ground around it (9x2x9) in the pollution frontier
+ * of the affected chunks. Each world tick, a fixed number of frontier positions are visited,
+ * round-robin across chunks, and converted to polluted soil with the same odds as before.
+ * The cost per tick is therefore the same for a puddle and for a lake.
+ */
+public class SoilPollution {
+
+	public static final SoilPollution INSTANCE = new SoilPollution();
+
+	private static final int RADIUS = 4;
+	private static final int VISITS_PER_TICK = 32;
+	private static final int CHUNK_VOLUME = 16 * 16 * 256;
+
+	private Map<World, WorldPollution> worlds = new HashMap<World, WorldPollution>();
+
+	private SoilPollution() {
+	}
+
+	private static class WorldPollution {
+		final LongHashMap chunks = new LongHashMap();
+		final List<ChunkPollution> active = new ArrayList<ChunkPollution>();
+		int cursor;
+		int pending;
+	}
+
+	private static class ChunkPollution {
+		final int chunkX, chunkZ;
+		final BitSet sources = new BitSet(CHUNK_VOLUME);
+		BitSet frontier;
+		int cursor;
+		int pending;
+
+		ChunkPollution(int chunkX, int chunkZ) {
+			this.chunkX = chunkX;
+			this.chunkZ = chunkZ;
+		}
+	}
+
+	private static int getIndex(int x, int y, int z) {
+		return y << 8 | (z & 15) << 4 | (x & 15);
+	}
+
+	private WorldPollution getWorldPollution(World world) {
+		WorldPollution pollution = this.worlds.get(world);
+		if (pollution == null) {
+			pollution = new WorldPollution();
+			this.worlds.put(world, pollution);
+		}
+		return pollution;
+	}
+
+	private ChunkPollution getChunk(WorldPollution pollution, int chunkX, int chunkZ, boolean create) {
+		long key = ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ);
+		ChunkPollution chunk = (ChunkPollution)pollution.chunks.getValueByKey(key);
+		if (chunk == null && create) {
+			chunk = new ChunkPollution(chunkX, chunkZ);
+			pollution.chunks.add(key, chunk);
+		}
+		return chunk;
+	}
+
+	public void addSource(World world, int x, int y, int z) {
+		if (world.isRemote || y < 1 || y >= 256) {
+			return;
+		}
+		WorldPollution pollution = this.getWorldPollution(world);
+		ChunkPollution chunk = this.getChunk(pollution, x >> 4, z >> 4, true);
+		int index = getIndex(x, y, z);
+		if (chunk.sources.get(index)) {
+			return;
+		}
+		chunk.sources.set(index);
+		for (int xi = x - RADIUS; xi <= x + RADIUS; ++xi) {
+			for (int zi = z - RADIUS; zi <= z + RADIUS; ++zi) {
+				if (!world.getChunkProvider().chunkExists(xi >> 4, zi >> 4)) {
+					continue;
+				}
+				for (int yi = y - 1; yi <= y; ++yi) {
+					this.addToFrontier(pollution, xi, yi, zi);
+				}
+			}
+		}
+	}
+
+	public void removeSource(World world, int x, int y, int z) {
+		WorldPollution pollution = this.worlds.get(world);
+		if (pollution == null || y < 0 || y >= 256) {
+			return;
+		}
+		ChunkPollution chunk = this.getChunk(pollution, x >> 4, z >> 4, false);
+		if (chunk != null) {
+			chunk.sources.clear(getIndex(x, y, z));
+		}
+	}
+
+	private void addToFrontier(WorldPollution pollution, int x, int y, int z) {
+		ChunkPollution chunk = this.getChunk(pollution, x >> 4, z >> 4, true);
+		if (chunk.frontier == null) {
+			chunk.frontier = new BitSet(CHUNK_VOLUME);
+		}
+		int index = getIndex(x, y, z);
+		if (!chunk.frontier.get(index)) {
+			chunk.frontier.set(index);
+			if (chunk.pending++ == 0) {
+				pollution.active.add(chunk);
+			}
+			pollution.pending++;
+		}
+	}
+
+	private void removeFromFrontier(WorldPollution pollution, ChunkPollution chunk, int index) {
+		chunk.frontier.clear(index);
+		chunk.pending--;
+		pollution.pending--;
+	}
+
+	/* Number of ground positions still waiting to be polluted, or found unpollutable */
+	public int getPendingWork(World world) {
+		WorldPollution pollution = this.worlds.get(world);
+		return pollution == null ? 0 : pollution.pending;
+	}
+
+	@SubscribeEvent
+	public void onWorldTick(WorldTickEvent event) {
+		if (event.phase != Phase.END || event.world.isRemote) {
+			return;
+		}
+		WorldPollution pollution = this.worlds.get(event.world);
+		if (pollution == null) {
+			return;
+		}
+		for (int visits = 0; visits < VISITS_PER_TICK && !pollution.active.isEmpty(); visits++) {
+			if (pollution.cursor >= pollution.active.size()) {
+				pollution.cursor = 0;
+			}
+			ChunkPollution chunk = pollution.active.get(pollution.cursor);
+			this.visit(event.world, pollution, chunk);
+			if (chunk.pending == 0) {
+				pollution.active.remove(pollution.cursor);
+			} else {
+				pollution.cursor++;
+			}
+		}
+	}
+
+	private void visit(World world, WorldPollution pollution, ChunkPollution chunk) {
+		int index = chunk.frontier.nextSetBit(chunk.cursor);
+		if (index < 0) {
+			index = chunk.frontier.nextSetBit(0);
+		}
+		chunk.cursor = index + 1;
+		int x = (chunk.chunkX << 4) | (index & 15);
+		int z = (chunk.chunkZ << 4) | (index >> 4 & 15);
+		int y = index >> 8;
+		Block block = world.getBlock(x, y, z);
+		if (block == Blocks.farmland) {
+			world.setBlock(x, y, z, ChemicaBlocks.POLLUTED_SOIL);
+			this.removeFromFrontier(pollution, chunk, index);
+		} else if (block.getMaterial() == Material.ground && block != ChemicaBlocks.POLLUTED_SOIL) {
+			if (world.rand.nextInt(5) == 1) {
+				world.setBlock(x, y, z, ChemicaBlocks.POLLUTED_SOIL);
+				this.removeFromFrontier(pollution, chunk, index);
+			}
+		} else {
+			this.removeFromFrontier(pollution, chunk, index);
+		}
+	}
+
+	@SubscribeEvent
+	public void onChunkUnload(ChunkEvent.Unload event) {
+		Chunk unloaded = event.getChunk();
+		WorldPollution pollution = this.worlds.get(unloaded.worldObj);
+		if (pollution == null) {
+			return;
+		}
+		long key = ChunkCoordIntPair.chunkXZ2Int(unloaded.xPosition, unloaded.zPosition);
+		ChunkPollution chunk = (ChunkPollution)pollution.chunks.remove(key);
+		if (chunk != null && chunk.pending > 0) {
+			pollution.active.remove(chunk);
+			pollution.pending -= chunk.pending;
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		this.worlds.remove(event.world);
+	}
+}
@@ -0,0 +1,115 @@
+package org.pfaa.chemica.fluid;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.pfaa.chemica.model.WorldConditions;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+/*
+ * Coarse ambient temperature of each chunk, in cells of 4x4x4 blocks.
+ *
+ * The ambient temperature comes from WorldConditions, and a cell holding a heat source is
+ * raised to at least 100C. Whether a cell holds a heat source is recomputed only when
+ * HeatSourceIndex reports that its section has changed.
+ */
+public class ThermalField {
+
+	public static final ThermalField INSTANCE = new ThermalField();
+
+	public static final int HEATED_TEMPERATURE = 373; // K
+
+	private static final int CELL_SHIFT = 2;
+	private static final int CELL_SIZE = 1 << CELL_SHIFT;
+	private static final int CELLS_PER_CHUNK = 4 * 4 * 64;
+
+	private Map<World, LongHashMap> worlds = new HashMap<World, LongHashMap>();
+
+	private ThermalField() {
+	}
+
+	private static class ChunkThermal {
+		final int[] heatRevisions = new int[CELLS_PER_CHUNK];
+		final boolean[] heated = new boolean[CELLS_PER_CHUNK];
+	}
+
+	private static int getCellIndex(int x, int y, int z) {
+		return (y >> CELL_SHIFT) << 4 | ((z & 15) >> CELL_SHIFT) << 2 | ((x & 15) >> CELL_SHIFT);
+	}
+
+	private ChunkThermal getChunk(World world, int x, int z) {
+		LongHashMap chunks = this.worlds.get(world);
+		if (chunks == null) {
+			chunks = new LongHashMap();
+			this.worlds.put(world, chunks);
+		}
+		long key = ChunkCoordIntPair.chunkXZ2Int(x >> 4, z >> 4);
+		ChunkThermal chunk = (ChunkThermal)chunks.getValueByKey(key);
+		if (chunk == null) {
+			chunk = new ChunkThermal();
+			chunks.add(key, chunk);
+		}
+		return chunk;
+	}
+
+	/* Ambient temperature in K */
+	public int getTemperature(World world, int x, int y, int z) {
+		int temperature = WorldConditions.INSTANCE.getTemperature(world, x, y, z);
+		if (this.isHeated(world, x, y, z)) {
+			temperature = Math.max(temperature, HEATED_TEMPERATURE);
+		}
+		return temperature;
+	}
+
+	private boolean isHeated(World world, int x, int y, int z) {
+		if (world.isRemote || y < 0 || y >= 256 || !world.getChunkProvider().chunkExists(x >> 4, z >> 4)) {
+			return false;
+		}
+		ChunkThermal chunk = this.getChunk(world, x, z);
+		int cell = getCellIndex(x, y, z);
+		int revision = HeatSourceIndex.INSTANCE.getRevision(world, x, y, z);
+		if (revision != chunk.heatRevisions[cell]) {
+			int mask = ~(CELL_SIZE - 1);
+			chunk.heated[cell] = this.holdsHeatSource(world, x & mask, y & mask, z & mask);
+			chunk.heatRevisions[cell] = revision;
+		}
+		return chunk.heated[cell];
+	}
+
+	private boolean holdsHeatSource(World world, int minX, int minY, int minZ) {
+		if (HeatSourceIndex.INSTANCE.getCount(world, minX, minY, minZ) == 0) {
+			return false;
+		}
+		for (int y = minY; y < minY + CELL_SIZE; y++) {
+			for (int z = minZ; z < minZ + CELL_SIZE; z++) {
+				for (int x = minX; x < minX + CELL_SIZE; x++) {
+					if (HeatSourceIndex.INSTANCE.contains(world, x, y, z)) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	@SubscribeEvent
+	public void onChunkUnload(ChunkEvent.Unload event) {
+		Chunk chunk = event.getChunk();
+		LongHashMap chunks = this.worlds.get(chunk.worldObj);
+		if (chunks != null) {
+			chunks.remove(ChunkCoordIntPair.chunkXZ2Int(chunk.xPosition, chunk.zPosition));
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		this.worlds.remove(event.world);
+	}
+}
@@ -30,25 +30,24 @@ public class Condition {
 		this(Constants.STANDARD_TEMPERATURE);
 	}
 	
+	/* A fresh instance, as Conditions are mutable; hot paths can use WorldConditions' primitive getters */
 	public static Condition ofWorldCoordinates(World world, int x, int y, int z) {
-		int temperature = getTemperatureAt(world, x, y, z);
-		double pressure = getPressureAt(world, x, y, z);
-		return new Condition(temperature, pressure);
+		Condition condition = WorldConditions.INSTANCE.getInternedCondition(world, x, y, z);
+		return new Condition(condition.temperature, condition.pressure, condition.aqueous, condition.atmospheric);
 	}
 	
-	private static double getPressureAt(World world, int x, int y, int z) {
+	static double getPressureAt(World world, int y) {
 		int sealevel = world.provider.hasNoSky ? world.provider.getActualHeight() : 
 			world.provider.getAverageGroundLevel();
 		return Constants.STANDARD_PRESSURE - 
-				(y - sealevel) * (2/3) * Constants.STANDARD_PRESSURE / 
+				(y - sealevel) * (2.0 / 3) * Constants.STANDARD_PRESSURE / 
 				                 (world.provider.getHeight() - sealevel);
 	}
 
-	private static int getTemperatureAt(World world, int x, int y, int z) {
+	static int getTemperatureAt(World world, int x, int y, int z) {
 		BiomeGenBase biomegenbase = world.getBiomeGenForCoords(x, z);
-		float biometemp = biomegenbase.getFloatTemperature(x, y, z);
-		int temperature = (int)((biometemp - 0.15F) * 45 / (2.0F - 0.15F));
-		boolean isHeated = world.getSavedLightValue(EnumSkyBlock.Block, x, y, z) == 10;
+		int temperature = getTemperatureOfBiome(biomegenbase.getFloatTemperature(x, y, z));
+		boolean isHeated = world.getSavedLightValue(EnumSkyBlock.Block, x, y, z) == HEATED_LIGHT_VALUE;
 		if (isHeated) {
 			temperature = Math.max(temperature, Constants.STANDARD_TEMPERATURE);
 		}
@@ -57,6 +56,14 @@ public class Condition {
 		// Maybe if surrounded by insulating blocks (or the same fluid)? 
 		return temperature;
 	}
+	
+	static final int HEATED_LIGHT_VALUE = 10;
+	
+	/* Maps vanilla biome temperatures (0.15 is snowy, 2.0 is desert) to 0-45C, in K */
+	static int getTemperatureOfBiome(float biometemp) {
+		int celsius = (int)((biometemp - 0.15F) * 45 / (2.0F - 0.15F));
+		return Constants.STANDARD_TEMPERATURE - 25 + celsius;
+	}
 
 	public static Condition STP = new Condition(Constants.STANDARD_TEMPERATURE, Constants.STANDARD_PRESSURE);
 	public static Condition AQUEOUS_STP = new Condition(Constants.STANDARD_TEMPERATURE, Constants.STANDARD_PRESSURE, true, false);
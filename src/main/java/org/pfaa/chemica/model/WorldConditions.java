@@ -0,0 +1,228 @@
+package org.pfaa.chemica.model;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.pfaa.core.world.WorldAccessAdapter;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.EnumSkyBlock;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.event.terraingen.PopulateChunkEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+/*
+ * Caches the environmental Condition of every loaded position.
+ *
+ * Temperature comes from a per-column cache of the biome temperature and its height
+ * lapse (same formula as BiomeGenBase), and is raised to the standard temperature where
+ * block light is exactly 10. That overlay is kept per section, and updated through a world
+ * listener as light changes. Pressure only depends on height, so it is tabulated per dimension.
+ *
+ * Conditions are interned per (temperature, height), and kept within this package; callers
+ * outside it get copies from Condition.ofWorldCoordinates(), or use the primitive getters.
+ */
+public class WorldConditions {
+
+	public static final WorldConditions INSTANCE = new WorldConditions();
+
+	private static final int SECTIONS_PER_CHUNK = 16;
+	private static final int LAPSE_START = 64;
+	private static final float LAPSE_RATE = 0.05F / 30.0F;
+
+	private Map<World, WorldConditionMap> worlds = new HashMap<World, WorldConditionMap>();
+
+	private WorldConditions() {
+	}
+
+	private static class WorldConditionMap {
+		final double[] pressures;
+		final LongHashMap chunks = new LongHashMap();
+		final LongHashMap interned = new LongHashMap();
+
+		WorldConditionMap(World world) {
+			this.pressures = new double[SECTIONS_PER_CHUNK * 16];
+			for (int y = 0; y < this.pressures.length; y++) {
+				this.pressures[y] = Condition.getPressureAt(world, y);
+			}
+		}
+	}
+
+	private static class ChunkConditions {
+		final boolean[] columnKnown = new boolean[256];
+		final float[] biomeTemperatures = new float[256];
+		final float[] lapseOffsets = new float[256];
+		final BitSet[] heated = new BitSet[SECTIONS_PER_CHUNK];
+	}
+
+	private WorldConditionMap getWorldConditions(World world) {
+		WorldConditionMap conditions = this.worlds.get(world);
+		if (conditions == null) {
+			conditions = new WorldConditionMap(world);
+			this.worlds.put(world, conditions);
+		}
+		return conditions;
+	}
+
+	private ChunkConditions getChunk(WorldConditionMap conditions, int x, int z) {
+		long key = ChunkCoordIntPair.chunkXZ2Int(x >> 4, z >> 4);
+		ChunkConditions chunk = (ChunkConditions)conditions.chunks.getValueByKey(key);
+		if (chunk == null) {
+			chunk = new ChunkConditions();
+			conditions.chunks.add(key, chunk);
+		}
+		return chunk;
+	}
+
+	private static boolean isCached(World world, int x, int y, int z) {
+		return y >= 0 && y < SECTIONS_PER_CHUNK * 16 && world.getChunkProvider().chunkExists(x >> 4, z >> 4);
+	}
+
+	/* Shared between positions, so never handed out of the package (see Condition.ofWorldCoordinates()) */
+	Condition getInternedCondition(World world, int x, int y, int z) {
+		if (!isCached(world, x, y, z)) {
+			return new Condition(Condition.getTemperatureAt(world, x, y, z), Condition.getPressureAt(world, y));
+		}
+		WorldConditionMap conditions = this.getWorldConditions(world);
+		int temperature = this.getTemperature(conditions, world, x, y, z);
+		long key = (long)temperature << 16 | y;
+		Condition condition = (Condition)conditions.interned.getValueByKey(key);
+		if (condition == null) {
+			condition = new Condition(temperature, conditions.pressures[y]);
+			conditions.interned.add(key, condition);
+		}
+		return condition;
+	}
+
+	/* Ambient temperature in K */
+	public int getTemperature(World world, int x, int y, int z) {
+		if (!isCached(world, x, y, z)) {
+			return Condition.getTemperatureAt(world, x, y, z);
+		}
+		return this.getTemperature(this.getWorldConditions(world), world, x, y, z);
+	}
+
+	public double getPressure(World world, int y) {
+		if (y < 0 || y >= SECTIONS_PER_CHUNK * 16) {
+			return Condition.getPressureAt(world, y);
+		}
+		return this.getWorldConditions(world).pressures[y];
+	}
+
+	private int getTemperature(WorldConditionMap conditions, World world, int x, int y, int z) {
+		ChunkConditions chunk = this.getChunk(conditions, x, z);
+		int column = (z & 15) << 4 | (x & 15);
+		if (!chunk.columnKnown[column]) {
+			float biometemp = world.getBiomeGenForCoords(x, z).getFloatTemperature(x, LAPSE_START, z);
+			float lapsed = world.getBiomeGenForCoords(x, z).getFloatTemperature(x, LAPSE_START + 1, z);
+			chunk.biomeTemperatures[column] = biometemp;
+			chunk.lapseOffsets[column] = (biometemp - lapsed) / LAPSE_RATE - 1;
+			chunk.columnKnown[column] = true;
+		}
+		float biometemp = chunk.biomeTemperatures[column];
+		if (y > LAPSE_START) {
+			biometemp -= (chunk.lapseOffsets[column] + y - LAPSE_START) * LAPSE_RATE;
+		}
+		int temperature = Condition.getTemperatureOfBiome(biometemp);
+		if (this.isHeated(world, chunk, x, y, z)) {
+			temperature = Math.max(temperature, Constants.STANDARD_TEMPERATURE);
+		}
+		return temperature;
+	}
+
+	private boolean isHeated(World world, ChunkConditions chunk, int x, int y, int z) {
+		BitSet heated = chunk.heated[y >> 4];
+		if (heated == null) {
+			heated = scanHeated(world, x, y, z);
+			chunk.heated[y >> 4] = heated;
+		}
+		return heated.get(getIndex(x, y, z));
+	}
+
+	private static BitSet scanHeated(World world, int x, int y, int z) {
+		BitSet heated = new BitSet();
+		ExtendedBlockStorage storage = world.getChunkFromBlockCoords(x, z).getBlockStorageArray()[y >> 4];
+		if (storage == null) {
+			return heated;
+		}
+		for (int sy = 0; sy < 16; sy++) {
+			for (int sz = 0; sz < 16; sz++) {
+				for (int sx = 0; sx < 16; sx++) {
+					if (storage.getExtBlocklightValue(sx, sy, sz) == Condition.HEATED_LIGHT_VALUE) {
+						heated.set(getIndex(sx, sy, sz));
+					}
+				}
+			}
+		}
+		return heated;
+	}
+
+	private static int getIndex(int x, int y, int z) {
+		return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+	}
+
+	private void onLightChanged(World world, int x, int y, int z) {
+		WorldConditionMap conditions = this.worlds.get(world);
+		if (conditions == null || y < 0 || y >= SECTIONS_PER_CHUNK * 16) {
+			return;
+		}
+		ChunkConditions chunk = (ChunkConditions)conditions.chunks.getValueByKey(ChunkCoordIntPair.chunkXZ2Int(x >> 4, z >> 4));
+		BitSet heated = chunk == null ? null : chunk.heated[y >> 4];
+		if (heated != null) {
+			heated.set(getIndex(x, y, z),
+					world.getSavedLightValue(EnumSkyBlock.Block, x, y, z) == Condition.HEATED_LIGHT_VALUE);
+		}
+	}
+
+	private void invalidateChunk(World world, int chunkX, int chunkZ) {
+		WorldConditionMap conditions = this.worlds.get(world);
+		if (conditions != null) {
+			conditions.chunks.remove(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldLoad(WorldEvent.Load event) {
+		event.world.addWorldAccess(new LightListener(event.world));
+	}
+
+	@SubscribeEvent
+	public void onChunkUnload(ChunkEvent.Unload event) {
+		Chunk chunk = event.getChunk();
+		this.invalidateChunk(chunk.worldObj, chunk.xPosition, chunk.zPosition);
+	}
+
+	@SubscribeEvent
+	public void onPopulateChunk(PopulateChunkEvent.Post event) {
+		for (int dx = 0; dx <= 1; dx++) {
+			for (int dz = 0; dz <= 1; dz++) {
+				this.invalidateChunk(event.world, event.chunkX + dx, event.chunkZ + dz);
+			}
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		this.worlds.remove(event.world);
+	}
+
+	/* Light changes are reported as render updates, on both sides */
+	private class LightListener extends WorldAccessAdapter {
+		private final World world;
+
+		public LightListener(World world) {
+			this.world = world;
+		}
+
+		@Override
+		public void markBlockForRenderUpdate(int x, int y, int z) {
+			onLightChanged(this.world, x, y, z);
+		}
+	}
+}
@@ -1,7 +1,14 @@
 package org.pfaa.chemica.registration;
 
 import org.pfaa.chemica.client.fluid.FogHandler;
+import org.pfaa.chemica.fluid.AtmosphereField;
+import org.pfaa.chemica.fluid.HeatSourceIndex;
+import org.pfaa.chemica.fluid.IndustrialFluidIndex;
+import org.pfaa.chemica.fluid.PhaseChangeQueue;
 import org.pfaa.chemica.fluid.RespirationHandler;
+import org.pfaa.chemica.fluid.SoilPollution;
+import org.pfaa.chemica.fluid.ThermalField;
+import org.pfaa.chemica.model.WorldConditions;
 import org.pfaa.geologica.fluid.BucketHandler;
 
 import cpw.mods.fml.common.FMLCommonHandler;
@@ -14,5 +21,14 @@ public class HandlerRegistration {
 		FMLCommonHandler.instance().bus().register(RespirationHandler.INSTANCE);
 		MinecraftForge.EVENT_BUS.register(FogHandler.INSTANCE);
 		MinecraftForge.EVENT_BUS.register(EnvironmentRegistrant.INSTANCE);
+		MinecraftForge.EVENT_BUS.register(IndustrialFluidIndex.INSTANCE);
+		MinecraftForge.EVENT_BUS.register(AtmosphereField.INSTANCE);
+		MinecraftForge.EVENT_BUS.register(HeatSourceIndex.INSTANCE);
+		MinecraftForge.EVENT_BUS.register(SoilPollution.INSTANCE);
+		FMLCommonHandler.instance().bus().register(SoilPollution.INSTANCE);
+		MinecraftForge.EVENT_BUS.register(WorldConditions.INSTANCE);
+		MinecraftForge.EVENT_BUS.register(ThermalField.INSTANCE);
+		MinecraftForge.EVENT_BUS.register(PhaseChangeQueue.INSTANCE);
+		FMLCommonHandler.instance().bus().register(PhaseChangeQueue.INSTANCE);
 	}
 }
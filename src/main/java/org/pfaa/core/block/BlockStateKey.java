@@ -0,0 +1,37 @@
+package org.pfaa.core.block;
+
+import net.minecraft.block.Block;
+import net.minecraft.world.IBlockAccess;
+
+/*
+ * Packs a block and its meta into an int, (id << 4 | meta), for use as a primitive key.
+ * 
+ * Block IDs can be remapped when a world is loaded, so anything keyed this way must 
+ * not outlive the world, or must be rebuilt on FMLModIdMappingEvent.
+ */
+public class BlockStateKey {
+	public static final int NONE = -1;
+	
+	private BlockStateKey() {
+	}
+	
+	public static int of(Block block, int meta) {
+		return Block.getIdFromBlock(block) << 4 | (meta & 15);
+	}
+	
+	public static int of(IBlockAccess world, int x, int y, int z) {
+		return of(world.getBlock(x, y, z), world.getBlockMetadata(x, y, z));
+	}
+	
+	public static int of(BlockWithMeta<?> blockWithMeta) {
+		return of(blockWithMeta.block, blockWithMeta.meta);
+	}
+	
+	public static Block getBlock(int key) {
+		return Block.getBlockById(key >>> 4);
+	}
+	
+	public static int getMeta(int key) {
+		return key & 15;
+	}
+}
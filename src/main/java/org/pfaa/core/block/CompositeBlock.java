@@ -1,16 +1,18 @@
 package org.pfaa.core.block;
 
-import java.io.File;
 import java.util.List;
 
+import org.pfaa.core.client.render.BakedCompositeSprite;
+import org.pfaa.core.client.render.TextureIndex;
 import org.pfaa.geologica.Geologica;
 
 import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
 import net.minecraft.block.Block;
 import net.minecraft.block.material.Material;
-import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.texture.IIconRegister;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.renderer.texture.TextureMap;
 import net.minecraft.creativetab.CreativeTabs;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
@@ -22,9 +24,26 @@ public abstract class CompositeBlock extends Block implements CompositeBlockAcce
 
 	private IIcon[] underlayIcons;
 	private IIcon[] oreOverlayIcons;
-	private boolean overlayEnabled;
+	private IIcon[] bakedIcons;
 	private boolean defaultRendererEnabled;
 	
+	/* 
+	 * Which pass is being rendered is kept per thread, rather than in the (shared) block, 
+	 * so that chunks can be meshed on several threads at once. 
+	 */
+	private static class RenderState {
+		CompositeBlock overlayBlock;
+		CompositeBlock defaultRenderedBlock;
+		CompositeBlock bakedBlock;
+	}
+	
+	private static final ThreadLocal<RenderState> renderState = new ThreadLocal<RenderState>() {
+		@Override
+		protected RenderState initialValue() {
+			return new RenderState();
+		}
+	};
+	
 	public CompositeBlock(Material material, boolean defaultRendererEnabled) {
 		super(material);
 		this.defaultRendererEnabled = defaultRendererEnabled;
@@ -38,7 +57,7 @@ public abstract class CompositeBlock extends Block implements CompositeBlockAcce
 	@Override
 	@SideOnly(Side.CLIENT)
 	public IIcon getIcon(int side, int meta) {
-		if (this.overlayEnabled) {
+		if (this.isOverlayEnabled()) {
 			return this.getOverlayIcon(side, meta);
 		} else {
 			return this.getUnderlayIcon(side, meta);
@@ -61,7 +80,15 @@ public abstract class CompositeBlock extends Block implements CompositeBlockAcce
 	@Override
 	@SideOnly(Side.CLIENT)
 	public IIcon getIcon(IBlockAccess world, int x, int y, int z, int side) {
-		if (this.overlayEnabled) {
+		if (renderState.get().bakedBlock == this) {
+			return this.bakedIcons[damageDropped(world.getBlockMetadata(x, y, z))];
+		}
+		return this.getIcon(world, x, y, z, side, this.isOverlayEnabled());
+	}
+	
+	@SideOnly(Side.CLIENT)
+	public IIcon getIcon(IBlockAccess world, int x, int y, int z, int side, boolean overlay) {
+		if (overlay) {
 			return this.getOverlayIcon(world, x, y, z, side);
 		} else {
 			return this.getUnderlayIcon(world, x, y, z, side);
@@ -110,8 +137,59 @@ public abstract class CompositeBlock extends Block implements CompositeBlockAcce
 			{
 				oreOverlayIcons[i] = this.registerOverlayIcon(registry, i);
             }
+			if (registry instanceof TextureMap) {
+				this.bakedIcons = new IIcon[getMetaCount()];
+				for (int i = 0; i < getMetaCount(); ++i) {
+					this.bakedIcons[i] = bakeIcon((TextureMap)registry, underlayIcons[i], oreOverlayIcons[i]);
+				}
+			}
         }
 	}
+	
+	@SideOnly(Side.CLIENT)
+	private static IIcon bakeIcon(TextureMap map, IIcon underlay, IIcon overlay) {
+		if (underlay == null || overlay == null) {
+			return null;
+		}
+		String name = BakedCompositeSprite.getName(underlay, overlay);
+		TextureAtlasSprite sprite = map.getTextureExtry(name);
+		if (sprite == null) {
+			sprite = new BakedCompositeSprite(name, underlay.getIconName(), overlay.getIconName());
+			map.setTextureEntry(name, sprite);
+		}
+		return sprite;
+	}
+	
+	/* 
+	 * Baked icons let the world renderer draw both layers in one pass; blocks that pick 
+	 * their underlay from the world (e.g., the adjacent host rock) can opt out per position.
+	 */
+	@SideOnly(Side.CLIENT)
+	protected boolean canUseBakedIcon(IBlockAccess world, int x, int y, int z) {
+		return true;
+	}
+	
+	@SideOnly(Side.CLIENT)
+	public boolean enableBakedIcon(IBlockAccess world, int x, int y, int z) {
+		if (this.bakedIcons == null) {
+			return false;
+		}
+		IIcon icon = this.bakedIcons[damageDropped(world.getBlockMetadata(x, y, z))];
+		if (icon instanceof BakedCompositeSprite && ((BakedCompositeSprite)icon).isLoaded() && 
+				this.canUseBakedIcon(world, x, y, z)) {
+			renderState.get().bakedBlock = this;
+			return true;
+		}
+		return false;
+	}
+	
+	@SideOnly(Side.CLIENT)
+	public void disableBakedIcon() {
+		RenderState state = renderState.get();
+		if (state.bakedBlock == this) {
+			state.bakedBlock = null;
+		}
+	}
 
 	private String getMetaIconResource(int i) {
 		return this.getTextureName() + "_" + getBlockNameSuffix(i);
@@ -123,18 +201,12 @@ public abstract class CompositeBlock extends Block implements CompositeBlockAcce
 	
 	private boolean resourceExists(String base, String name, String ext) {
 		ResourceLocation location = new ResourceLocation(name);
-		try {
-			String path = base + File.separator + location.getResourcePath() + "." + ext;
-			ResourceLocation complete = new ResourceLocation(location.getResourceDomain(), path);
-			Minecraft.getMinecraft().getResourceManager().getResource(complete);
-		} catch (Exception e) {
-			return false;
-		}
-		return true;
+		String path = base + "/" + location.getResourcePath() + "." + ext;
+		return TextureIndex.INSTANCE.exists(new ResourceLocation(location.getResourceDomain(), path));
 	}
 	
 	protected boolean metaIconExists(int i) {
-		return resourceExists("blocks/textures", getMetaIconResource(i), "png");
+		return resourceExists("textures/blocks", getMetaIconResource(i), "png");
 	}
 
 	protected IIcon registerUnderlayIcon(IIconRegister registry, int i) {
@@ -151,38 +223,54 @@ public abstract class CompositeBlock extends Block implements CompositeBlockAcce
 	
 	@Override
 	public int getRenderType() {
-		if (this.defaultRendererEnabled) {
+		if (this.isDefaultRendererEnabled()) {
 			return super.getRenderType();
 		} else {
 			return Geologica.registrant.getCompositeBlockRendererId();
 		}
 	}
 
+	public boolean isOverlayEnabled() {
+		return renderState.get().overlayBlock == this;
+	}
+
 	@Override
 	public boolean enableOverlay() {
 		if (this.useMultipassRendering()) {
-			this.overlayEnabled = true;
+			renderState.get().overlayBlock = this;
+			return true;
 		}
-		return this.overlayEnabled;
+		return this.isOverlayEnabled();
 	}
 
 	@Override
 	public void disableOverlay() {
-		this.overlayEnabled = false;
+		RenderState state = renderState.get();
+		if (state.overlayBlock == this) {
+			state.overlayBlock = null;
+		}
 	}
 
+	private boolean isDefaultRendererEnabled() {
+		return this.defaultRendererEnabled || renderState.get().defaultRenderedBlock == this;
+	}
+
+	/* Only for the current thread, e.g., while rendering this block as an item */
 	public void enableDefaultRenderer() {
-		this.defaultRendererEnabled = true;
+		renderState.get().defaultRenderedBlock = this;
 	}
 
 	public void disableDefaultRenderer() {
-		this.defaultRendererEnabled = false;
+		RenderState state = renderState.get();
+		if (state.defaultRenderedBlock == this) {
+			state.defaultRenderedBlock = null;
+		}
 	}
 
 	@Override
 	@SideOnly(Side.CLIENT)
 	public int getRenderBlockPass() {
-		return this.defaultRendererEnabled && this.useMultipassRendering() ? 1 : 0;
+		return this.isDefaultRendererEnabled() && this.useMultipassRendering() ? 1 : 0;
 	}
 
 	@Override
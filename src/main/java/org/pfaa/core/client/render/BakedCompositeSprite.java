@@ -0,0 +1,102 @@
+package org.pfaa.core.client.render;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.imageio.ImageIO;
+
+import org.pfaa.geologica.Geologica;
+
+import com.google.common.collect.Lists;
+
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.client.renderer.texture.TextureAtlasSprite;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.util.IIcon;
+import net.minecraft.util.ResourceLocation;
+
+/*
+ * An atlas sprite composed, at stitch time, of an underlay texture with an overlay
+ * drawn on top, so that a composite block can be rendered in a single opaque pass.
+ *
+ * Animated textures contribute their first frame. If either texture cannot be read,
+ * the sprite is not stitched, and isLoaded() tells the block to render both passes.
+ */
+@SideOnly(Side.CLIENT)
+public class BakedCompositeSprite extends TextureAtlasSprite {
+
+	private final String underlayName;
+	private final String overlayName;
+	private boolean loaded;
+
+	public BakedCompositeSprite(String name, String underlayName, String overlayName) {
+		super(name);
+		this.underlayName = underlayName;
+		this.overlayName = overlayName;
+	}
+
+	public static String getName(IIcon underlay, IIcon overlay) {
+		return "pfaa_baked/" + underlay.getIconName().replace(':', '.') + "+" +
+				overlay.getIconName().replace(':', '.');
+	}
+
+	public boolean isLoaded() {
+		return this.loaded;
+	}
+
+	@Override
+	public boolean hasCustomLoader(IResourceManager manager, ResourceLocation location) {
+		return true;
+	}
+
+	/* Returns true when the sprite should be skipped */
+	@Override
+	public boolean load(IResourceManager manager, ResourceLocation location) {
+		this.loaded = false;
+		try {
+			BufferedImage underlay = readFirstFrame(manager, this.underlayName);
+			BufferedImage overlay = readFirstFrame(manager, this.overlayName);
+			int size = Math.max(underlay.getWidth(), overlay.getWidth());
+			BufferedImage baked = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+			Graphics2D graphics = baked.createGraphics();
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+			graphics.drawImage(underlay, 0, 0, size, size, null);
+			graphics.drawImage(overlay, 0, 0, size, size, null);
+			graphics.dispose();
+			int[] pixels = new int[size * size];
+			baked.getRGB(0, 0, size, size, pixels, 0, size);
+			this.setIconWidth(size);
+			this.setIconHeight(size);
+			this.setFramesTextureData(Lists.newArrayList(new Object[] { new int[][] { pixels } }));
+			this.loaded = true;
+			return false;
+		} catch (IOException e) {
+			Geologica.log.warn("Could not bake " + this.getIconName() + ": " + e);
+			return true;
+		}
+	}
+
+	private static BufferedImage readFirstFrame(IResourceManager manager, String iconName) throws IOException {
+		ResourceLocation icon = new ResourceLocation(iconName);
+		ResourceLocation location = new ResourceLocation(icon.getResourceDomain(),
+				"textures/blocks/" + icon.getResourcePath() + ".png");
+		InputStream in = manager.getResource(location).getInputStream();
+		try {
+			BufferedImage image = ImageIO.read(in);
+			if (image == null) {
+				throw new IOException("unreadable image " + location);
+			}
+			if (image.getHeight() > image.getWidth()) {
+				image = image.getSubimage(0, 0, image.getWidth(), image.getWidth());
+			}
+			return image;
+		} finally {
+			in.close();
+		}
+	}
+}
@@ -0,0 +1,182 @@
+package org.pfaa.core.client.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.pfaa.geologica.Geologica;
+
+import cpw.mods.fml.common.Loader;
+import cpw.mods.fml.common.ModContainer;
+import cpw.mods.fml.common.ObfuscationReflectionHelper;
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.AbstractResourcePack;
+import net.minecraft.client.resources.IResourceManager;
+import net.minecraft.client.resources.IResourceManagerReloadListener;
+import net.minecraft.client.resources.IResourcePack;
+import net.minecraft.client.resources.ResourcePackRepository;
+import net.minecraft.util.ResourceLocation;
+
+/*
+ * Answers whether a block texture exists, without asking the resource manager, which
+ * reports a missing resource by throwing.
+ *
+ * On the first lookup after each resource reload, the block textures in the PFAA mod files
+ * and in the active resource packs are listed. Lookups in the domains of those mod files are
+ * then answered from the listing. Anything the listing cannot vouch for (other domains,
+ * resource packs that are not plain files or folders) falls back to asking the resource manager.
+ *
+ * Icons are registered during the texture map's own reload, so this must be registered as a
+ * reload listener ahead of the texture map (i.e., during pre-initialization), to drop the
+ * listing of the previous packs in time.
+ */
+@SideOnly(Side.CLIENT)
+public class TextureIndex implements IResourceManagerReloadListener {
+
+	public static final TextureIndex INSTANCE = new TextureIndex();
+
+	private static final String MOD_ID_PREFIX = "PFAA";
+	private static final String ASSETS = "assets/";
+	private static final String BLOCK_TEXTURES = "/textures/blocks/";
+
+	private Set<String> textures;
+	private Set<String> domains;
+	private boolean complete;
+
+	private TextureIndex() {
+	}
+
+	public boolean exists(ResourceLocation location) {
+		if (this.textures == null) {
+			this.build();
+		}
+		String key = location.toString();
+		if (this.textures != null && this.textures.contains(key)) {
+			return true;
+		}
+		if (this.textures != null && this.complete && this.domains.contains(location.getResourceDomain())) {
+			return false;
+		}
+		return probe(location);
+	}
+
+	private static boolean probe(ResourceLocation location) {
+		try {
+			Minecraft.getMinecraft().getResourceManager().getResource(location);
+		} catch (IOException e) {
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public void onResourceManagerReload(IResourceManager resourceManager) {
+		this.textures = null;
+	}
+
+	private void build() {
+		long start = System.nanoTime();
+		this.textures = new HashSet<String>();
+		this.domains = new HashSet<String>();
+		this.complete = true;
+		Set<File> sources = new HashSet<File>();
+		for (ModContainer mod : Loader.instance().getActiveModList()) {
+			if (mod.getModId().startsWith(MOD_ID_PREFIX) && mod.getSource() != null) {
+				sources.add(mod.getSource());
+			}
+		}
+		for (File source : sources) {
+			this.complete &= this.index(source, this.domains);
+		}
+		ResourcePackRepository repository = Minecraft.getMinecraft().getResourcePackRepository();
+		for (Object entry : repository.getRepositoryEntries()) {
+			IResourcePack pack = ((ResourcePackRepository.Entry)entry).getResourcePack();
+			File file = null;
+			if (pack instanceof AbstractResourcePack) {
+				file = ObfuscationReflectionHelper.getPrivateValue(AbstractResourcePack.class,
+						(AbstractResourcePack)pack, "field_110597_b", "resourcePackFile");
+			}
+			this.complete &= file != null && this.index(file, null);
+		}
+		Geologica.log.debug("Indexed " + this.textures.size() + " block textures in " +
+				(System.nanoTime() - start) / 1000000 + " ms");
+	}
+
+	private boolean index(File source, Set<String> domains) {
+		try {
+			if (source.isDirectory()) {
+				this.indexDirectory(new File(source, ASSETS), domains);
+			} else if (source.isFile()) {
+				this.indexZip(source, domains);
+			} else {
+				return false;
+			}
+		} catch (IOException e) {
+			Geologica.log.warn("Could not list textures in " + source + ": " + e);
+			return false;
+		}
+		return true;
+	}
+
+	private void indexZip(File source, Set<String> domains) throws IOException {
+		ZipFile zip = new ZipFile(source);
+		try {
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				String name = entry.getName();
+				if (!entry.isDirectory() && name.startsWith(ASSETS)) {
+					this.add(name.substring(ASSETS.length()), domains);
+				}
+			}
+		} finally {
+			zip.close();
+		}
+	}
+
+	private void indexDirectory(File assets, Set<String> domains) {
+		File[] domainDirs = assets.listFiles();
+		if (domainDirs == null) {
+			return;
+		}
+		for (File domainDir : domainDirs) {
+			File blocks = new File(domainDir, BLOCK_TEXTURES);
+			if (blocks.isDirectory()) {
+				this.indexDirectory(blocks, domainDir.getName() + BLOCK_TEXTURES, domains);
+			}
+		}
+	}
+
+	private void indexDirectory(File dir, String prefix, Set<String> domains) {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.isDirectory()) {
+				this.indexDirectory(file, prefix + file.getName() + "/", domains);
+			} else {
+				this.add(prefix + file.getName(), domains);
+			}
+		}
+	}
+
+	/* Path is relative to assets/, i.e., domain/textures/blocks/... */
+	private void add(String path, Set<String> domains) {
+		int slash = path.indexOf('/');
+		if (slash <= 0 || !path.startsWith(BLOCK_TEXTURES, slash) || !path.endsWith(".png")) {
+			return;
+		}
+		String domain = path.substring(0, slash);
+		this.textures.add(domain + ":" + path.substring(slash + 1));
+		if (domains != null) {
+			domains.add(domain);
+		}
+	}
+}
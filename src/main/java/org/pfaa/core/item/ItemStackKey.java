@@ -0,0 +1,32 @@
+package org.pfaa.core.item;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+
+/*
+ * Packs an item and its damage into an int, (id << 16 | damage), for use as a primitive key.
+ * 
+ * Like BlockStateKey, item IDs can be remapped when a world is loaded, so anything keyed 
+ * this way must be rebuilt for each world.
+ */
+public class ItemStackKey {
+	
+	private ItemStackKey() {
+	}
+	
+	public static int of(Item item, int damage) {
+		return Item.getIdFromItem(item) << 16 | (damage & 0xFFFF);
+	}
+	
+	public static int of(ItemStack stack) {
+		return of(stack.getItem(), stack.getItemDamage());
+	}
+	
+	public static Item getItem(int key) {
+		return Item.getItemById(key >>> 16);
+	}
+	
+	public static int getDamage(int key) {
+		return key & 0xFFFF;
+	}
+}
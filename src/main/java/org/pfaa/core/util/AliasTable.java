@@ -0,0 +1,72 @@
+package org.pfaa.core.util;
+
+import java.util.Random;
+
+/*
+ * Samples an index from a fixed discrete distribution in constant time, using Vose's
+ * alias method: each slot holds the probability of keeping its own index, and the index
+ * it defers to otherwise.
+ */
+public class AliasTable {
+	private final float[] probabilities;
+	private final int[] aliases;
+	
+	public AliasTable(double[] weights) {
+		int n = weights.length;
+		if (n == 0) {
+			throw new IllegalArgumentException("no weights");
+		}
+		this.probabilities = new float[n];
+		this.aliases = new int[n];
+		double total = 0;
+		for (double weight : weights) {
+			total += weight;
+		}
+		double[] scaled = new double[n];
+		int[] small = new int[n], large = new int[n];
+		int nSmall = 0, nLarge = 0;
+		for (int i = 0; i < n; i++) {
+			scaled[i] = weights[i] * n / total;
+			if (scaled[i] < 1) {
+				small[nSmall++] = i;
+			} else {
+				large[nLarge++] = i;
+			}
+		}
+		while (nSmall > 0 && nLarge > 0) {
+			int less = small[--nSmall], more = large[--nLarge];
+			this.probabilities[less] = (float)scaled[less];
+			this.aliases[less] = more;
+			scaled[more] = scaled[more] + scaled[less] - 1;
+			if (scaled[more] < 1) {
+				small[nSmall++] = more;
+			} else {
+				large[nLarge++] = more;
+			}
+		}
+		/* whatever remains is 1, give or take rounding */
+		while (nLarge > 0) {
+			int i = large[--nLarge];
+			this.probabilities[i] = 1;
+			this.aliases[i] = i;
+		}
+		while (nSmall > 0) {
+			int i = small[--nSmall];
+			this.probabilities[i] = 1;
+			this.aliases[i] = i;
+		}
+	}
+	
+	public int size() {
+		return this.probabilities.length;
+	}
+	
+	public int sample(Random rand) {
+		int n = this.probabilities.length;
+		if (n == 1) {
+			return 0;
+		}
+		int i = rand.nextInt(n);
+		return rand.nextFloat() < this.probabilities[i] ? i : this.aliases[i];
+	}
+}
@@ -0,0 +1,23 @@
+package org.pfaa.core.util;
+
+class HashUtils {
+	private static final int MAX_CAPACITY = 1 << 30;
+	
+	private HashUtils() {
+	}
+	
+	/* Spreads the bits of keys that are close together, like packed coordinates or block IDs */
+	static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+	
+	/* Power of two with room for the expected size at a load factor of 1/2 */
+	static int getCapacity(int expectedSize) {
+		int capacity = 4;
+		while (capacity < expectedSize * 2 && capacity < MAX_CAPACITY) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+}
@@ -0,0 +1,151 @@
+package org.pfaa.core.util;
+
+import java.util.Arrays;
+
+/*
+ * Open-addressing (linear probing) map from ints to objects, to avoid boxing keys in hot lookups.
+ */
+public class IntObjectMap<V> {
+	private static final int FREE = 0;
+	
+	private int[] keys;
+	private Object[] values;
+	private int mask;
+	private int size;
+	private boolean containsFree;
+	private V freeValue;
+	
+	public IntObjectMap() {
+		this(8);
+	}
+	
+	public IntObjectMap(int expectedSize) {
+		int capacity = HashUtils.getCapacity(expectedSize);
+		this.keys = new int[capacity];
+		this.values = new Object[capacity];
+		this.mask = capacity - 1;
+	}
+	
+	private int find(int key) {
+		int pos = HashUtils.mix(key) & this.mask;
+		int k;
+		while ((k = this.keys[pos]) != FREE) {
+			if (k == key) {
+				return pos;
+			}
+			pos = (pos + 1) & this.mask;
+		}
+		return -(pos + 1);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		if (key == FREE) {
+			return this.freeValue;
+		}
+		int pos = this.find(key);
+		return pos < 0 ? null : (V)this.values[pos];
+	}
+	
+	public boolean containsKey(int key) {
+		if (key == FREE) {
+			return this.containsFree;
+		}
+		return this.find(key) >= 0;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (key == FREE) {
+			V old = this.freeValue;
+			this.containsFree = true;
+			this.freeValue = value;
+			return old;
+		}
+		int pos = this.find(key);
+		if (pos >= 0) {
+			V old = (V)this.values[pos];
+			this.values[pos] = value;
+			return old;
+		}
+		pos = -pos - 1;
+		this.keys[pos] = key;
+		this.values[pos] = value;
+		if (++this.size > this.keys.length / 2) {
+			this.rehash(this.keys.length * 2);
+		}
+		return null;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		if (key == FREE) {
+			V old = this.freeValue;
+			this.containsFree = false;
+			this.freeValue = null;
+			return old;
+		}
+		int pos = this.find(key);
+		if (pos < 0) {
+			return null;
+		}
+		V old = (V)this.values[pos];
+		this.size--;
+		this.shiftKeys(pos);
+		return old;
+	}
+	
+	/* Backward-shift deletion, so that probe sequences stay unbroken without tombstones */
+	private void shiftKeys(int pos) {
+		while (true) {
+			int last = pos;
+			pos = (pos + 1) & this.mask;
+			int k;
+			while (true) {
+				if ((k = this.keys[pos]) == FREE) {
+					this.keys[last] = FREE;
+					this.values[last] = null;
+					return;
+				}
+				int slot = HashUtils.mix(k) & this.mask;
+				if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+					break;
+				}
+				pos = (pos + 1) & this.mask;
+			}
+			this.keys[last] = k;
+			this.values[last] = this.values[pos];
+		}
+	}
+	
+	private void rehash(int capacity) {
+		int[] oldKeys = this.keys;
+		Object[] oldValues = this.values;
+		this.keys = new int[capacity];
+		this.values = new Object[capacity];
+		this.mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) {
+				int pos = -this.find(oldKeys[i]) - 1;
+				this.keys[pos] = oldKeys[i];
+				this.values[pos] = oldValues[i];
+			}
+		}
+	}
+	
+	public int size() {
+		return this.size + (this.containsFree ? 1 : 0);
+	}
+	
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+	
+	public void clear() {
+		Arrays.fill(this.keys, FREE);
+		Arrays.fill(this.values, null);
+		this.size = 0;
+		this.containsFree = false;
+		this.freeValue = null;
+	}
+}
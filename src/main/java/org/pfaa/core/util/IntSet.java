@@ -0,0 +1,136 @@
+package org.pfaa.core.util;
+
+import java.util.Arrays;
+
+/*
+ * Open-addressing (linear probing) set of ints, to avoid boxing keys in hot lookups.
+ */
+public class IntSet {
+	private static final int FREE = 0;
+	
+	private int[] keys;
+	private int mask;
+	private int size;
+	private boolean containsFree;
+	
+	public IntSet() {
+		this(8);
+	}
+	
+	public IntSet(int expectedSize) {
+		int capacity = HashUtils.getCapacity(expectedSize);
+		this.keys = new int[capacity];
+		this.mask = capacity - 1;
+	}
+	
+	private int find(int key) {
+		int pos = HashUtils.mix(key) & this.mask;
+		int k;
+		while ((k = this.keys[pos]) != FREE) {
+			if (k == key) {
+				return pos;
+			}
+			pos = (pos + 1) & this.mask;
+		}
+		return -(pos + 1);
+	}
+	
+	public boolean contains(int key) {
+		if (key == FREE) {
+			return this.containsFree;
+		}
+		return this.find(key) >= 0;
+	}
+	
+	public boolean add(int key) {
+		if (key == FREE) {
+			boolean added = !this.containsFree;
+			this.containsFree = true;
+			return added;
+		}
+		int pos = this.find(key);
+		if (pos >= 0) {
+			return false;
+		}
+		this.keys[-pos - 1] = key;
+		if (++this.size > this.keys.length / 2) {
+			this.rehash(this.keys.length * 2);
+		}
+		return true;
+	}
+	
+	public boolean remove(int key) {
+		if (key == FREE) {
+			boolean removed = this.containsFree;
+			this.containsFree = false;
+			return removed;
+		}
+		int pos = this.find(key);
+		if (pos < 0) {
+			return false;
+		}
+		this.size--;
+		this.shiftKeys(pos);
+		return true;
+	}
+	
+	/* Backward-shift deletion, so that probe sequences stay unbroken without tombstones */
+	private void shiftKeys(int pos) {
+		while (true) {
+			int last = pos;
+			pos = (pos + 1) & this.mask;
+			int k;
+			while (true) {
+				if ((k = this.keys[pos]) == FREE) {
+					this.keys[last] = FREE;
+					return;
+				}
+				int slot = HashUtils.mix(k) & this.mask;
+				if (last <= pos ? (last >= slot || slot > pos) : (last >= slot && slot > pos)) {
+					break;
+				}
+				pos = (pos + 1) & this.mask;
+			}
+			this.keys[last] = k;
+		}
+	}
+	
+	private void rehash(int capacity) {
+		int[] oldKeys = this.keys;
+		this.keys = new int[capacity];
+		this.mask = capacity - 1;
+		for (int k : oldKeys) {
+			if (k != FREE) {
+				this.keys[-this.find(k) - 1] = k;
+			}
+		}
+	}
+	
+	public int size() {
+		return this.size + (this.containsFree ? 1 : 0);
+	}
+	
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+	
+	public void clear() {
+		Arrays.fill(this.keys, FREE);
+		this.size = 0;
+		this.containsFree = false;
+	}
+	
+	public int[] toArray() {
+		int[] result = new int[this.size()];
+		int i = 0;
+		if (this.containsFree) {
+			result[i++] = FREE;
+		}
+		for (int k : this.keys) {
+			if (k != FREE) {
+				result[i++] = k;
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,220 @@
+package org.pfaa.core.world;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import net.minecraft.block.Block;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraftforge.event.terraingen.PopulateChunkEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+/*
+ * Tracks which positions of each 16x16x16 chunk section hold an indexed block.
+ *
+ * Sections are scanned lazily, the first time they are queried, and are then
+ * kept up to date through set() and update(). Until a section is scanned, changes to
+ * it are ignored, since the scan will pick them up anyway. Only server worlds are indexed;
+ * on the client, every query answers conservatively.
+ *
+ * Every change to the membership of a section, or touch(), assigns it a fresh revision, so
+ * that callers can cache anything derived from the indexed blocks in a section and cheaply
+ * detect when it is stale.
+ */
+public abstract class BlockSectionIndex {
+	private static final int SECTIONS_PER_CHUNK = 16;
+	private static final int SECTION_SIZE = 16 * 16 * 16;
+
+	private Map<World, LongHashMap> worlds = new HashMap<World, LongHashMap>();
+	private int lastRevision;
+
+	private static class Section {
+		BitSet members;
+		int count;
+		int revision;
+	}
+
+	protected abstract boolean isIndexed(Block block, int meta);
+
+	private Section[] getChunkSections(World world, int chunkX, int chunkZ) {
+		if (world.isRemote) {
+			return null;
+		}
+		LongHashMap chunks = this.worlds.get(world);
+		if (chunks == null) {
+			chunks = new LongHashMap();
+			this.worlds.put(world, chunks);
+		}
+		long key = ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ);
+		Section[] sections = (Section[])chunks.getValueByKey(key);
+		if (sections == null && world.getChunkProvider().chunkExists(chunkX, chunkZ)) {
+			sections = new Section[SECTIONS_PER_CHUNK];
+			chunks.add(key, sections);
+		}
+		return sections;
+	}
+
+	private Section getSection(World world, int x, int y, int z) {
+		if (y < 0 || y >= SECTIONS_PER_CHUNK * 16) {
+			return null;
+		}
+		Section[] sections = this.getChunkSections(world, x >> 4, z >> 4);
+		if (sections == null) {
+			return null;
+		}
+		int sectionY = y >> 4;
+		Section section = sections[sectionY];
+		if (section == null) {
+			section = this.scan(world, x >> 4, sectionY, z >> 4);
+			sections[sectionY] = section;
+		}
+		return section;
+	}
+
+	private Section scan(World world, int chunkX, int sectionY, int chunkZ) {
+		Section section = new Section();
+		section.revision = ++this.lastRevision;
+		Chunk chunk = world.getChunkFromChunkCoords(chunkX, chunkZ);
+		ExtendedBlockStorage storage = chunk.getBlockStorageArray()[sectionY];
+		if (storage == null || storage.isEmpty()) {
+			return section;
+		}
+		for (int y = 0; y < 16; y++) {
+			for (int z = 0; z < 16; z++) {
+				for (int x = 0; x < 16; x++) {
+					if (this.isIndexed(storage.getBlockByExtId(x, y, z), storage.getExtBlockMetadata(x, y, z))) {
+						if (section.members == null) {
+							section.members = new BitSet(SECTION_SIZE);
+						}
+						section.members.set(getIndex(x, y, z));
+						section.count++;
+					}
+				}
+			}
+		}
+		return section;
+	}
+
+	private static int getIndex(int x, int y, int z) {
+		return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+	}
+
+	private Section getScannedSection(World world, int x, int y, int z) {
+		if (world.isRemote || y < 0 || y >= SECTIONS_PER_CHUNK * 16) {
+			return null;
+		}
+		LongHashMap chunks = this.worlds.get(world);
+		if (chunks == null) {
+			return null;
+		}
+		Section[] sections = (Section[])chunks.getValueByKey(ChunkCoordIntPair.chunkXZ2Int(x >> 4, z >> 4));
+		return sections == null ? null : sections[y >> 4];
+	}
+
+	public void set(World world, int x, int y, int z, boolean indexed) {
+		Section section = this.getScannedSection(world, x, y, z);
+		if (section == null) {
+			return;
+		}
+		int index = getIndex(x, y, z);
+		boolean wasIndexed = section.members != null && section.members.get(index);
+		if (indexed != wasIndexed) {
+			if (section.members == null) {
+				section.members = new BitSet(SECTION_SIZE);
+			}
+			section.members.set(index, indexed);
+			section.count += indexed ? 1 : -1;
+			section.revision = ++this.lastRevision;
+		}
+	}
+
+	public void update(World world, int x, int y, int z) {
+		if (this.getScannedSection(world, x, y, z) != null) {
+			this.set(world, x, y, z, this.isIndexed(world.getBlock(x, y, z), world.getBlockMetadata(x, y, z)));
+		}
+	}
+
+	/* Marks a section as changed, without changing its membership, e.g., when metadata changes */
+	public void touch(World world, int x, int y, int z) {
+		Section section = this.getScannedSection(world, x, y, z);
+		if (section != null) {
+			section.revision = ++this.lastRevision;
+		}
+	}
+
+	/* True only when the section is known to hold no indexed blocks */
+	public boolean isSectionEmpty(World world, int x, int y, int z) {
+		Section section = this.getSection(world, x, y, z);
+		return section != null && section.count == 0;
+	}
+
+	public boolean contains(World world, int x, int y, int z) {
+		Section section = this.getSection(world, x, y, z);
+		if (section == null) {
+			return !world.isRemote;
+		}
+		return section.members != null && section.members.get(getIndex(x, y, z));
+	}
+
+	public int getCount(World world, int x, int y, int z) {
+		Section section = this.getSection(world, x, y, z);
+		return section == null ? 0 : section.count;
+	}
+
+	/* Conservative: true unless every section within the radius is known to be empty */
+	public boolean anyWithin(World world, int x, int y, int z, int radius) {
+		for (int sy = (y - radius) >> 4; sy <= (y + radius) >> 4; sy++) {
+			for (int sz = (z - radius) >> 4; sz <= (z + radius) >> 4; sz++) {
+				for (int sx = (x - radius) >> 4; sx <= (x + radius) >> 4; sx++) {
+					if (sy < 0 || sy >= SECTIONS_PER_CHUNK) {
+						continue;
+					}
+					if (!this.isSectionEmpty(world, sx << 4, sy << 4, sz << 4)) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	/* Returns a value that changes whenever the section changes; zero if the section is unknown */
+	public int getRevision(World world, int x, int y, int z) {
+		Section section = this.getSection(world, x, y, z);
+		return section == null ? 0 : section.revision;
+	}
+
+	public void invalidateChunk(World world, int chunkX, int chunkZ) {
+		LongHashMap chunks = this.worlds.get(world);
+		if (chunks != null) {
+			chunks.remove(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+		}
+	}
+
+	@SubscribeEvent
+	public void onChunkUnload(ChunkEvent.Unload event) {
+		Chunk chunk = event.getChunk();
+		this.invalidateChunk(chunk.worldObj, chunk.xPosition, chunk.zPosition);
+	}
+
+	/* Population writes into the neighbouring chunks without notifying anyone */
+	@SubscribeEvent
+	public void onPopulateChunk(PopulateChunkEvent.Post event) {
+		for (int dx = 0; dx <= 1; dx++) {
+			for (int dz = 0; dz <= 1; dz++) {
+				this.invalidateChunk(event.world, event.chunkX + dx, event.chunkZ + dz);
+			}
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		this.worlds.remove(event.world);
+	}
+}
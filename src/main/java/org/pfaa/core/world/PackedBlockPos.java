@@ -0,0 +1,31 @@
+package org.pfaa.core.world;
+
+/*
+ * Packs block coordinates into a long (26 bits for x and z, 12 for y), so that
+ * positions can be queued and hashed without allocating.
+ */
+public class PackedBlockPos {
+	private static final int XZ_BITS = 26;
+	private static final int Y_BITS = 12;
+	private static final long XZ_MASK = (1L << XZ_BITS) - 1;
+	private static final long Y_MASK = (1L << Y_BITS) - 1;
+
+	private PackedBlockPos() {
+	}
+
+	public static long pack(int x, int y, int z) {
+		return (x & XZ_MASK) << (Y_BITS + XZ_BITS) | (y & Y_MASK) << XZ_BITS | (z & XZ_MASK);
+	}
+
+	public static int getX(long pos) {
+		return (int)(pos >> (Y_BITS + XZ_BITS));
+	}
+
+	public static int getY(long pos) {
+		return (int)(pos >> XZ_BITS & Y_MASK);
+	}
+
+	public static int getZ(long pos) {
+		return (int)(pos << (64 - XZ_BITS) >> (64 - XZ_BITS));
+	}
+}
@@ -0,0 +1,66 @@
+package org.pfaa.core.world;
+
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.world.IWorldAccess;
+
+/*
+ * No-op IWorldAccess, for listeners that only care about a few notifications, 
+ * typically markBlockForUpdate(), which is called for (almost) every block change.
+ */
+public abstract class WorldAccessAdapter implements IWorldAccess {
+
+	@Override
+	public void markBlockForUpdate(int x, int y, int z) {
+	}
+
+	@Override
+	public void markBlockForRenderUpdate(int x, int y, int z) {
+	}
+
+	@Override
+	public void markBlockRangeForRenderUpdate(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+	}
+
+	@Override
+	public void playSound(String sound, double x, double y, double z, float volume, float pitch) {
+	}
+
+	@Override
+	public void playSoundToNearExcept(EntityPlayer player, String sound, double x, double y, double z, 
+			float volume, float pitch) {
+	}
+
+	@Override
+	public void spawnParticle(String particle, double x, double y, double z, 
+			double velX, double velY, double velZ) {
+	}
+
+	@Override
+	public void onEntityCreate(Entity entity) {
+	}
+
+	@Override
+	public void onEntityDestroy(Entity entity) {
+	}
+
+	@Override
+	public void playRecord(String record, int x, int y, int z) {
+	}
+
+	@Override
+	public void broadcastSound(int soundId, int x, int y, int z, int data) {
+	}
+
+	@Override
+	public void playAuxSFX(EntityPlayer player, int sfxType, int x, int y, int z, int data) {
+	}
+
+	@Override
+	public void destroyBlockPartially(int breakerId, int x, int y, int z, int progress) {
+	}
+
+	@Override
+	public void onStaticEntitiesChanged() {
+	}
+}
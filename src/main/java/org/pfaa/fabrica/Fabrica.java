@@ -2,6 +2,8 @@ package org.pfaa.fabrica;
 
 import org.apache.logging.log4j.Logger;
 import org.pfaa.fabrica.integration.ModIntegration;
+import org.pfaa.fabrica.recipe.FluidReactorRecipes;
+import org.pfaa.fabrica.recipe.HoodRecipes;
 import org.pfaa.fabrica.registration.CommonRegistrant;
 
 import cpw.mods.fml.common.Mod;
@@ -11,6 +13,7 @@ import cpw.mods.fml.common.SidedProxy;
 import cpw.mods.fml.common.event.FMLInitializationEvent;
 import cpw.mods.fml.common.event.FMLPostInitializationEvent;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
+import cpw.mods.fml.common.event.FMLServerStartingEvent;
 
 
 @Mod(modid = "PFAAFabrica", 
@@ -57,4 +60,11 @@ public class Fabrica {
 		registrant.postregister();
 		configuration.save();
 	}
+	
+	/* Fluid and item IDs are those of the loaded world by now */
+	@EventHandler
+	public void serverStarting(FMLServerStartingEvent event) {
+		FluidReactorRecipes.compile();
+		HoodRecipes.compile();
+	}
 }
@@ -3,12 +3,17 @@ package org.pfaa.fabrica;
 import java.io.File;
 
 import net.minecraftforge.common.config.Configuration;
+import net.minecraftforge.common.config.Property;
 
 public class FabricaConfiguration {
 	private Configuration config;
+	
+	/* Read up front, so that it is written with the rest of the file, and not looked up per cycle */
+	private boolean batchFluidReactorEnabled;
 
 	public FabricaConfiguration(Configuration config) {
 		this.config = config;
+		this.batchFluidReactorEnabled = this.readBatchFluidReactorEnabled();
 	}
 
 	public FabricaConfiguration(File file) {
@@ -18,4 +23,14 @@ public class FabricaConfiguration {
 	public void save() {
 		this.config.save();
 	}
+	
+	public boolean isBatchFluidReactorEnabled() {
+		return this.batchFluidReactorEnabled;
+	}
+	
+	private boolean readBatchFluidReactorEnabled() {
+		Property bool = this.config.get("Toggles", "batchFluidReactors", true, 
+			"Whether fluid reactors run as many recipes per cycle as their contents, energy and temperature allow, instead of one");
+		return bool.getBoolean(true);
+	}
 }
@@ -32,6 +32,9 @@ public class FluidReactorBlock extends BlockCauldron implements ITileEntityProvi
 	
 	@Override
 	public void onNeighborBlockChange(World world, int x, int y, int z, Block block) {
+		if (!world.isRemote) {
+			((TileEntityFluidReactor)world.getTileEntity(x, y, z)).onNeighborChanged();
+		}
 		this.tryToVentGas(world, x, y, z);
 	}
 	
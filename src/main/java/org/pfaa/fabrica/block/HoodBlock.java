@@ -51,6 +51,9 @@ public class HoodBlock extends Block implements ITileEntityProvider {
 
 	@Override
 	public void onNeighborBlockChange(World world, int x, int y, int z, Block block) {
+		if (!world.isRemote) {
+			((TileEntityHood)world.getTileEntity(x, y, z)).onNeighborChanged();
+		}
 		this.tryToAdoptFurnace(world, x, y, z);
 	}
 	
@@ -11,6 +11,8 @@ import org.pfaa.fabrica.registration.CommonRegistrant;
 import cpw.mods.fml.client.registry.ISimpleBlockRenderingHandler;
 import cpw.mods.fml.client.registry.RenderingRegistry;
 import cpw.mods.fml.common.Loader;
+import net.minecraft.client.Minecraft;
+import net.minecraft.world.World;
 import openmods.renderer.BlockRenderingHandler;
 
 public class ClientRegistrant extends CommonRegistrant {
@@ -38,4 +40,9 @@ public class ClientRegistrant extends CommonRegistrant {
 	public int getFluidReactorRendererId() {
 		return this.fluidReactorRenderer.getRenderId();
 	}
+	
+	@Override
+	public World getClientWorld() {
+		return Minecraft.getMinecraft().theWorld;
+	}
 }
@@ -8,10 +8,10 @@ import net.minecraft.block.Block;
 import net.minecraft.block.BlockCauldron;
 import net.minecraft.client.renderer.RenderBlocks;
 import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.IIcon;
 import net.minecraft.world.IBlockAccess;
-import net.minecraftforge.fluids.FluidStack;
-import net.minecraftforge.fluids.FluidTankInfo;
+import net.minecraftforge.fluids.Fluid;
 
 public class FluidReactorRenderer implements ISimpleBlockRenderingHandler {
 
@@ -36,11 +36,18 @@ public class FluidReactorRenderer implements ISimpleBlockRenderingHandler {
 			RenderBlocks renderer) {
 		renderer.renderBlockCauldron((BlockCauldron)block, x, y, z);
 		
-		TileEntityFluidReactor te = (TileEntityFluidReactor)world.getTileEntity(x, y, z);
-		FluidTankInfo[] tanks = te.getTankInfo(null);
-		float productHeight = this.renderFluid(world, x, y, z, 0, 0, tanks[0].fluid, tanks[0].capacity*tanks.length, renderer);
-		this.renderFluid(world, x, y, z, 0, productHeight, tanks[1].fluid, tanks[1].capacity*tanks.length, renderer);
-		this.renderFluid(world, x, y, z, 0.5F, productHeight, tanks[2].fluid, tanks[2].capacity*tanks.length, renderer);
+		TileEntity te = world.getTileEntity(x, y, z);
+		if (!(te instanceof TileEntityFluidReactor)) {
+			return true;
+		}
+		TileEntityFluidReactor reactor = (TileEntityFluidReactor)te;
+		float productLevel = reactor.getRenderedLevel(TileEntityFluidReactor.LIQUID_OUTPUT_TANK);
+		this.renderFluid(x, y, z, 0, 1, productLevel, 
+				reactor.getRenderedFluid(TileEntityFluidReactor.LIQUID_OUTPUT_TANK), renderer);
+		this.renderFluid(x, y, z, 0, 0.5F, productLevel + reactor.getRenderedLevel(TileEntityFluidReactor.INPUT_TANK_A), 
+				reactor.getRenderedFluid(TileEntityFluidReactor.INPUT_TANK_A), renderer);
+		this.renderFluid(x, y, z, 0.5F, 1, productLevel + reactor.getRenderedLevel(TileEntityFluidReactor.INPUT_TANK_B), 
+				reactor.getRenderedFluid(TileEntityFluidReactor.INPUT_TANK_B), renderer);
 		
 		return true;
 	}
@@ -56,19 +63,18 @@ public class FluidReactorRenderer implements ISimpleBlockRenderingHandler {
 	}
 
 	
-    private float renderFluid(IBlockAccess world, int x, int y, int z, float xoff, float yoff, FluidStack fluid, int capacity, 
+    private void renderFluid(int x, int y, int z, float minX, float maxX, float level, Fluid fluid, 
     		RenderBlocks render) {
-    	float height = (float) (fluid.amount / capacity + yoff) * 0.9F;
-    	
-        if (fluid.getFluid() == null || fluid.getFluid().getIcon() == null) return height;
+    	if (fluid == null || fluid.getIcon() == null) return;
+    	float height = level * 0.9F;
         
         Tessellator tessellator = Tessellator.instance;
-        int color = fluid.getFluid().getColor();
+        int color = fluid.getColor();
         float red = (color >> 16 & 255) / 255.0F;
         float green = (color >> 8 & 255) / 255.0F;
         float blue = (color & 255) / 255.0F;
         
-        IIcon iconStill = fluid.getFluid().getIcon();
+        IIcon iconStill = fluid.getIcon();
 
         double u1, u2, u3, u4, v1, v2, v3, v4;
         u2 = iconStill.getInterpolatedU(0.0D);
@@ -82,15 +88,13 @@ public class FluidReactorRenderer implements ISimpleBlockRenderingHandler {
 
         tessellator.setBrightness(200);
         tessellator.setColorOpaque_F(red, green, blue);
-        tessellator.addVertexWithUV(x + 0, y + height, z + 0, u2, v2);
-        tessellator.addVertexWithUV(x + 0, y + height, z + 1, u1, v1);
-        tessellator.addVertexWithUV(x + xoff, y + height, z + 1, u4, v4);
-        tessellator.addVertexWithUV(x + xoff, y + height, z + 0, u3, v3);
+        tessellator.addVertexWithUV(x + minX, y + height, z + 0, u2, v2);
+        tessellator.addVertexWithUV(x + minX, y + height, z + 1, u1, v1);
+        tessellator.addVertexWithUV(x + maxX, y + height, z + 1, u4, v4);
+        tessellator.addVertexWithUV(x + maxX, y + height, z + 0, u3, v3);
 
         render.renderMinY = 0;
         render.renderMaxY = 1;
-        
-        return height;
     }
 
 }
@@ -0,0 +1,44 @@
+package org.pfaa.fabrica.entity;
+
+import openmods.sync.SyncableIntArray;
+import openmods.tileentity.SyncedTileEntity;
+
+/*
+ * Base of the fabrica tiles that sync state to clients for rendering.
+ *
+ * Subclasses keep their synced fields at the resolution the renderer shows (e.g., tank
+ * levels in steps), so that changes too small to see leave them untouched, and call
+ * requestSync() instead of sync(). The changes are then sent by the SyncScheduler, together
+ * with any others made before the next sync, and the client re-renders once.
+ */
+public abstract class FabricaSyncedTileEntity extends SyncedTileEntity {
+
+	/* Managed by SyncScheduler */
+	boolean syncQueued;
+
+	public FabricaSyncedTileEntity() {
+		this.syncMap.addUpdateListener(createRenderUpdateListener());
+	}
+
+	protected void requestSync() {
+		if (this.worldObj != null && !this.worldObj.isRemote) {
+			SyncScheduler.INSTANCE.queue(this);
+		}
+	}
+
+	void flushSync() {
+		this.syncQueued = false;
+		if (!this.isInvalid()) {
+			this.sync();
+		}
+	}
+
+	/* Sets the element, returning whether it changed; pending changes are not counted again */
+	protected static boolean setValue(SyncableIntArray array, int index, int value) {
+		if (array.getValue(index) == value) {
+			return false;
+		}
+		array.setValue(index, value);
+		return true;
+	}
+}
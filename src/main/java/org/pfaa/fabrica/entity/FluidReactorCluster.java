@@ -0,0 +1,214 @@
+package org.pfaa.fabrica.entity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import cofh.api.energy.EnergyStorage;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+import net.minecraftforge.common.util.ForgeDirection;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.FluidTank;
+
+/*
+ * Horizontally adjacent reactors with compatible contents (the same fluids in each tank, or
+ * none, and the same catalyst) are run as a single reactor.
+ *
+ * While clustered, the members share pooled tanks and energy storage, as large as all of theirs
+ * together, and only the first member (the leader) is scheduled. Each member's share is only
+ * worked out when it is needed: for rendering, which shows the average level, and for saving.
+ * A cluster is dissolved, handing each member its share, whenever a member is unloaded,
+ * changes catalyst or has a neighbour change, after which the scheduler forms it again.
+ */
+class FluidReactorCluster {
+
+	private static final ForgeDirection[] HORIZONTALS = new ForgeDirection[] {
+		ForgeDirection.NORTH, ForgeDirection.SOUTH, ForgeDirection.WEST, ForgeDirection.EAST
+	};
+
+	private final List<TileEntityFluidReactor> members;
+
+	final FluidTank liquidOutputTank;
+	final FluidTank inputTankA;
+	final FluidTank inputTankB;
+	final EnergyStorage energy;
+
+	private FluidReactorCluster(List<TileEntityFluidReactor> members, int tankCapacity,
+			int energyCapacity, int energyMaxReceive) {
+		this.members = members;
+		int size = members.size();
+		this.liquidOutputTank = new FluidTank(tankCapacity * size);
+		this.inputTankA = new FluidTank(tankCapacity * size);
+		this.inputTankB = new FluidTank(tankCapacity * size);
+		this.energy = new EnergyStorage(energyCapacity * size, energyMaxReceive * size);
+		int energyStored = 0;
+		for (TileEntityFluidReactor member : members) {
+			pool(this.liquidOutputTank, member.liquidOutputTank);
+			pool(this.inputTankA, member.inputTankA);
+			pool(this.inputTankB, member.inputTankB);
+			energyStored += member.energy.getEnergyStored();
+		}
+		this.energy.setEnergyStored(energyStored);
+		for (int i = 0; i < size; i++) {
+			members.get(i).joinCluster(this, i);
+		}
+		this.updateTankLevels(true);
+	}
+
+	private static void pool(FluidTank pool, FluidTank tank) {
+		FluidStack fluid = tank.getFluid();
+		if (fluid == null || fluid.amount <= 0) {
+			return;
+		}
+		FluidStack pooled = pool.getFluid();
+		pool.setFluid(new FluidStack(fluid, fluid.amount + (pooled == null ? 0 : pooled.amount)));
+	}
+
+	static FluidReactorCluster form(TileEntityFluidReactor seed, int tankCapacity,
+			int energyCapacity, int energyMaxReceive) {
+		if (!canCluster(seed)) {
+			return null;
+		}
+		Fluid[] fluids = new Fluid[3];
+		ItemStack catalyst = seed.getCatalyst();
+		List<TileEntityFluidReactor> members = new ArrayList<TileEntityFluidReactor>();
+		Set<TileEntityFluidReactor> visited = new HashSet<TileEntityFluidReactor>();
+		Deque<TileEntityFluidReactor> queue = new ArrayDeque<TileEntityFluidReactor>();
+		queue.add(seed);
+		accept(seed, fluids);
+		members.add(seed);
+		visited.add(seed);
+		World world = seed.getWorldObj();
+		while (!queue.isEmpty()) {
+			TileEntityFluidReactor reactor = queue.poll();
+			for (ForgeDirection dir : HORIZONTALS) {
+				int x = reactor.xCoord + dir.offsetX, z = reactor.zCoord + dir.offsetZ;
+				if (!world.blockExists(x, reactor.yCoord, z)) {
+					continue;
+				}
+				TileEntity te = world.getTileEntity(x, reactor.yCoord, z);
+				if (!(te instanceof TileEntityFluidReactor)) {
+					continue;
+				}
+				TileEntityFluidReactor neighbor = (TileEntityFluidReactor)te;
+				if (visited.add(neighbor) && canCluster(neighbor) && isCompatible(neighbor, fluids, catalyst)) {
+					accept(neighbor, fluids);
+					members.add(neighbor);
+					queue.add(neighbor);
+				}
+			}
+		}
+		if (members.size() < 2) {
+			return null;
+		}
+		return new FluidReactorCluster(members, tankCapacity, energyCapacity, energyMaxReceive);
+	}
+
+	private static boolean canCluster(TileEntityFluidReactor reactor) {
+		return reactor.loaded && reactor.cluster == null && !reactor.isInvalid();
+	}
+
+	private static Fluid[] getFluids(TileEntityFluidReactor reactor) {
+		return new Fluid[] {
+			getFluid(reactor.liquidOutputTank), getFluid(reactor.inputTankA), getFluid(reactor.inputTankB)
+		};
+	}
+
+	private static Fluid getFluid(FluidTank tank) {
+		FluidStack fluid = tank.getFluid();
+		return fluid == null || fluid.amount <= 0 ? null : fluid.getFluid();
+	}
+
+	private static boolean isCompatible(TileEntityFluidReactor reactor, Fluid[] fluids, ItemStack catalyst) {
+		ItemStack other = reactor.getCatalyst();
+		if (catalyst == null ? other != null : other == null || !catalyst.isItemEqual(other)) {
+			return false;
+		}
+		Fluid[] others = getFluids(reactor);
+		for (int i = 0; i < fluids.length; i++) {
+			if (fluids[i] != null && others[i] != null && fluids[i] != others[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void accept(TileEntityFluidReactor reactor, Fluid[] fluids) {
+		Fluid[] others = getFluids(reactor);
+		for (int i = 0; i < fluids.length; i++) {
+			if (fluids[i] == null) {
+				fluids[i] = others[i];
+			}
+		}
+	}
+
+	TileEntityFluidReactor getLeader() {
+		return this.members.get(0);
+	}
+
+	int size() {
+		return this.members.size();
+	}
+
+	/* Amounts are split evenly, with the remainder going to the first members */
+	static int getShare(int amount, int size, int index) {
+		return amount / size + (index < amount % size ? 1 : 0);
+	}
+
+	FluidTank getShare(FluidTank pool, int capacity, int index) {
+		FluidTank tank = new FluidTank(capacity);
+		FluidStack fluid = pool.getFluid();
+		if (fluid != null) {
+			int amount = getShare(fluid.amount, this.size(), index);
+			tank.setFluid(amount > 0 ? new FluidStack(fluid, amount) : null);
+		}
+		return tank;
+	}
+
+	EnergyStorage getShare(EnergyStorage pool, int capacity, int maxReceive, int index) {
+		EnergyStorage energy = new EnergyStorage(capacity, maxReceive);
+		energy.setEnergyStored(getShare(pool.getEnergyStored(), this.size(), index));
+		return energy;
+	}
+
+	/* Sends gas to the hoods of the members, starting with the leader's, until it is all taken */
+	void vent(FluidStack gas) {
+		for (TileEntityFluidReactor member : this.members) {
+			if (gas == null || gas.amount <= 0) {
+				return;
+			}
+			int filled = member.fillHood(gas);
+			gas = filled > 0 ? new FluidStack(gas, gas.amount - filled) : gas;
+		}
+	}
+
+	/* Every member shows the same, average, levels, so we stop when the leader's are unchanged */
+	void updateTankLevels(boolean force) {
+		int size = this.size();
+		int output = TileEntityFluidReactor.getTankLevel(this.liquidOutputTank, size);
+		int inputA = TileEntityFluidReactor.getTankLevel(this.inputTankA, size);
+		int inputB = TileEntityFluidReactor.getTankLevel(this.inputTankB, size);
+		for (TileEntityFluidReactor member : this.members) {
+			if (!member.setTankLevels(output, inputA, inputB) && !force) {
+				return;
+			}
+		}
+	}
+
+	void dissolve() {
+		for (TileEntityFluidReactor member : this.members) {
+			member.leaveCluster();
+		}
+		FluidReactorScheduler.INSTANCE.onClusterDissolved(this.getLeader().getWorldObj());
+		for (TileEntityFluidReactor member : this.members) {
+			FluidReactorScheduler.INSTANCE.requestClustering(member);
+			FluidReactorScheduler.INSTANCE.wake(member);
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package org.pfaa.fabrica.entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent.Phase;
+import cpw.mods.fml.common.gameevent.TickEvent.WorldTickEvent;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+
+/*
+ * Ticks the fluid reactors of each world that can make progress, instead of every reactor
+ * ticking itself.
+ *
+ * A reactor that finds nothing to do (no recipe, not enough input or energy, or no room for
+ * the output) goes dormant and is dropped from the active list. It is woken when something
+ * that could change that happens to it: fluid filled or drained, energy received, or a new
+ * catalyst.
+ *
+ * Reactors also ask to be clustered with their neighbours (see FluidReactorCluster) when loaded,
+ * and when their surroundings or catalyst change. Clusters are formed at the start of the next
+ * world tick, after which only their leaders are scheduled.
+ */
+public class FluidReactorScheduler {
+
+	public static final FluidReactorScheduler INSTANCE = new FluidReactorScheduler();
+
+	private Map<World, WorldReactors> worlds = new HashMap<World, WorldReactors>();
+
+	private FluidReactorScheduler() {
+	}
+
+	private static class WorldReactors {
+		final List<TileEntityFluidReactor> active = new ArrayList<TileEntityFluidReactor>();
+		final List<TileEntityFluidReactor> unclustered = new ArrayList<TileEntityFluidReactor>();
+		int loaded;
+		int clusters;
+	}
+
+	private WorldReactors getWorldReactors(World world) {
+		WorldReactors reactors = this.worlds.get(world);
+		if (reactors == null) {
+			reactors = new WorldReactors();
+			this.worlds.put(world, reactors);
+		}
+		return reactors;
+	}
+
+	void load(TileEntityFluidReactor reactor) {
+		if (!reactor.loaded) {
+			reactor.loaded = true;
+			this.getWorldReactors(reactor.getWorldObj()).loaded++;
+			this.requestClustering(reactor);
+			this.wake(reactor);
+		}
+	}
+
+	void unload(TileEntityFluidReactor reactor) {
+		if (reactor.loaded) {
+			reactor.loaded = false;
+			WorldReactors reactors = this.worlds.get(reactor.getWorldObj());
+			if (reactors != null) {
+				reactors.loaded--;
+			}
+			if (reactor.cluster != null) {
+				reactor.cluster.dissolve();
+			}
+		}
+	}
+
+	void requestClustering(TileEntityFluidReactor reactor) {
+		if (reactor.loaded && !reactor.clusterPending) {
+			reactor.clusterPending = true;
+			this.getWorldReactors(reactor.getWorldObj()).unclustered.add(reactor);
+		}
+	}
+
+	void wake(TileEntityFluidReactor reactor) {
+		if (reactor.cluster != null) {
+			reactor = reactor.cluster.getLeader();
+		}
+		if (reactor.loaded && !reactor.active) {
+			reactor.active = true;
+			this.getWorldReactors(reactor.getWorldObj()).active.add(reactor);
+		}
+	}
+
+	public int getActiveCount(World world) {
+		WorldReactors reactors = this.worlds.get(world);
+		return reactors == null ? 0 : reactors.active.size();
+	}
+
+	public int getDormantCount(World world) {
+		WorldReactors reactors = this.worlds.get(world);
+		return reactors == null ? 0 : reactors.loaded - reactors.active.size();
+	}
+
+	public int getClusterCount(World world) {
+		WorldReactors reactors = this.worlds.get(world);
+		return reactors == null ? 0 : reactors.clusters;
+	}
+
+	private void formClusters(WorldReactors reactors) {
+		List<TileEntityFluidReactor> unclustered = reactors.unclustered;
+		for (int i = 0; i < unclustered.size(); i++) {
+			TileEntityFluidReactor reactor = unclustered.get(i);
+			reactor.clusterPending = false;
+			FluidReactorCluster cluster = TileEntityFluidReactor.formCluster(reactor);
+			if (cluster != null) {
+				reactors.clusters++;
+				this.wake(cluster.getLeader());
+			}
+		}
+		unclustered.clear();
+	}
+
+	void onClusterDissolved(World world) {
+		WorldReactors reactors = this.worlds.get(world);
+		if (reactors != null) {
+			reactors.clusters--;
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldTick(WorldTickEvent event) {
+		if (event.phase != Phase.END || event.world.isRemote) {
+			return;
+		}
+		WorldReactors reactors = this.worlds.get(event.world);
+		if (reactors == null) {
+			return;
+		}
+		this.formClusters(reactors);
+		long now = event.world.getTotalWorldTime();
+		List<TileEntityFluidReactor> active = reactors.active;
+		int kept = 0;
+		/* reactors woken while we go are appended, and visited in this same pass */
+		for (int i = 0; i < active.size(); i++) {
+			TileEntityFluidReactor reactor = active.get(i);
+			if (reactor.loaded && !reactor.isInvalid() && reactor.updateReactor(now)) {
+				active.set(kept++, reactor);
+			} else {
+				reactor.active = false;
+			}
+		}
+		active.subList(kept, active.size()).clear();
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		this.worlds.remove(event.world);
+	}
+}
@@ -0,0 +1,220 @@
+package org.pfaa.fabrica.entity;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.pfaa.chemica.fluid.AtmosphereField;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.World;
+import net.minecraftforge.common.util.ForgeDirection;
+import net.minecraftforge.fluids.Fluid;
+import net.minecraftforge.fluids.FluidContainerRegistry;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.IFluidHandler;
+
+/*
+ * Hoods that touch each other form a duct network, which moves the gas they collect in bulk.
+ *
+ * When the network is formed, the fluid handlers next to its hoods (other than reactors, and
+ * other than below them, where the gas comes from) are recorded as sinks, and the hoods open
+ * to the air above as release points. On each transfer, the gas of all the hoods is totalled per fluid and offered
+ * to each sink at once, and what is accepted is then drained from the hoods that hold it.
+ * Whatever the sinks cannot take is released, at a limited rate, into the atmosphere, once
+ * the hoods are more than half full.
+ *
+ * A network is dissolved whenever one of its hoods is unloaded or has a neighbour change,
+ * after which the manager forms it again.
+ */
+class HoodNetwork {
+
+	private static final float RELEASE_THRESHOLD = 0.5F;
+	private static final int RELEASE_PER_POINT = FluidContainerRegistry.BUCKET_VOLUME;
+
+	private final List<TileEntityHood> hoods;
+	private final List<IFluidHandler> sinks = new ArrayList<IFluidHandler>();
+	private final List<ForgeDirection> sinkSides = new ArrayList<ForgeDirection>();
+	private final List<TileEntityHood> releasePoints = new ArrayList<TileEntityHood>();
+	private final int capacity;
+
+	private HoodNetwork(List<TileEntityHood> hoods) {
+		this.hoods = hoods;
+		int capacity = 0;
+		for (TileEntityHood hood : hoods) {
+			capacity += hood.getCapacity();
+			hood.network = this;
+			this.findSinks(hood);
+		}
+		this.capacity = capacity;
+	}
+
+	private void findSinks(TileEntityHood hood) {
+		World world = hood.getWorldObj();
+		for (ForgeDirection dir : ForgeDirection.VALID_DIRECTIONS) {
+			if (dir == ForgeDirection.DOWN) {
+				continue;
+			}
+			int x = hood.xCoord + dir.offsetX, y = hood.yCoord + dir.offsetY, z = hood.zCoord + dir.offsetZ;
+			if (!world.blockExists(x, y, z)) {
+				continue;
+			}
+			TileEntity te = world.getTileEntity(x, y, z);
+			if (isSink(te)) {
+				this.sinks.add((IFluidHandler)te);
+				this.sinkSides.add(dir.getOpposite());
+			} else if (dir == ForgeDirection.UP && world.isAirBlock(x, y, z)) {
+				this.releasePoints.add(hood);
+			}
+		}
+	}
+
+	/*
+	 * Reactors are left out: one with its own hood would take our gas back in as input,
+	 * and one without turns gas away.
+	 */
+	private static boolean isSink(TileEntity te) {
+		return te instanceof IFluidHandler && !(te instanceof TileEntityHood) && !(te instanceof TileEntityFluidReactor);
+	}
+
+	/* A sink in another chunk can be unloaded without invalidation or a neighbour change */
+	private static boolean isLoaded(World world, TileEntity sink) {
+		return !sink.isInvalid() && world.blockExists(sink.xCoord, sink.yCoord, sink.zCoord) &&
+				world.getTileEntity(sink.xCoord, sink.yCoord, sink.zCoord) == sink;
+	}
+
+	static HoodNetwork form(TileEntityHood seed) {
+		if (!canJoin(seed)) {
+			return null;
+		}
+		List<TileEntityHood> hoods = new ArrayList<TileEntityHood>();
+		Set<TileEntityHood> visited = new HashSet<TileEntityHood>();
+		Deque<TileEntityHood> queue = new ArrayDeque<TileEntityHood>();
+		queue.add(seed);
+		hoods.add(seed);
+		visited.add(seed);
+		World world = seed.getWorldObj();
+		while (!queue.isEmpty()) {
+			TileEntityHood hood = queue.poll();
+			for (ForgeDirection dir : ForgeDirection.VALID_DIRECTIONS) {
+				int x = hood.xCoord + dir.offsetX, y = hood.yCoord + dir.offsetY, z = hood.zCoord + dir.offsetZ;
+				if (!world.blockExists(x, y, z)) {
+					continue;
+				}
+				TileEntity te = world.getTileEntity(x, y, z);
+				if (te instanceof TileEntityHood) {
+					TileEntityHood neighbor = (TileEntityHood)te;
+					if (visited.add(neighbor) && canJoin(neighbor)) {
+						hoods.add(neighbor);
+						queue.add(neighbor);
+					}
+				}
+			}
+		}
+		return new HoodNetwork(hoods);
+	}
+
+	private static boolean canJoin(TileEntityHood hood) {
+		return hood.loaded && hood.network == null && !hood.isInvalid();
+	}
+
+	int size() {
+		return this.hoods.size();
+	}
+
+	World getWorld() {
+		return this.hoods.get(0).getWorldObj();
+	}
+
+	/* Amount of each gas held by the hoods, in the order first found */
+	private Map<Fluid, Integer> getTotals() {
+		Map<Fluid, Integer> totals = new LinkedHashMap<Fluid, Integer>();
+		for (TileEntityHood hood : this.hoods) {
+			FluidStack gas = hood.getGas();
+			if (gas != null && gas.amount > 0) {
+				Integer total = totals.get(gas.getFluid());
+				totals.put(gas.getFluid(), (total == null ? 0 : total) + gas.amount);
+			}
+		}
+		return totals;
+	}
+
+	private void drain(Fluid fluid, int amount) {
+		for (TileEntityHood hood : this.hoods) {
+			if (amount <= 0) {
+				return;
+			}
+			FluidStack gas = hood.getGas();
+			if (gas != null && gas.getFluid() == fluid) {
+				FluidStack drained = hood.drain(ForgeDirection.UP, amount, true);
+				amount -= drained == null ? 0 : drained.amount;
+			}
+		}
+	}
+
+	void transfer() {
+		if (this.sinks.isEmpty() && this.releasePoints.isEmpty()) {
+			return;
+		}
+		Map<Fluid, Integer> totals = this.getTotals();
+		if (totals.isEmpty()) {
+			return;
+		}
+		World world = this.getWorld();
+		int held = 0;
+		for (Map.Entry<Fluid, Integer> entry : totals.entrySet()) {
+			int amount = entry.getValue();
+			for (int i = 0; i < this.sinks.size() && amount > 0; i++) {
+				IFluidHandler sink = this.sinks.get(i);
+				if (isLoaded(world, (TileEntity)sink)) {
+					amount -= sink.fill(this.sinkSides.get(i), new FluidStack(entry.getKey(), amount), true);
+				}
+			}
+			this.drain(entry.getKey(), entry.getValue() - amount);
+			entry.setValue(amount);
+			held += amount;
+		}
+		this.release(totals, held);
+	}
+
+	private void release(Map<Fluid, Integer> totals, int held) {
+		int excess = held - (int)(this.capacity * RELEASE_THRESHOLD);
+		int budget = Math.min(excess, this.releasePoints.size() * RELEASE_PER_POINT);
+		if (budget <= 0) {
+			return;
+		}
+		World world = this.getWorld();
+		for (Map.Entry<Fluid, Integer> entry : totals.entrySet()) {
+			int amount = Math.min(entry.getValue(), budget);
+			if (amount <= 0) {
+				continue;
+			}
+			this.drain(entry.getKey(), amount);
+			budget -= amount;
+			int points = this.releasePoints.size();
+			for (int i = 0; i < points; i++) {
+				TileEntityHood point = this.releasePoints.get(i);
+				int share = FluidReactorCluster.getShare(amount, points, i);
+				if (share > 0) {
+					AtmosphereField.INSTANCE.vent(world, point.xCoord, point.yCoord + 1, point.zCoord,
+							new FluidStack(entry.getKey(), share));
+				}
+			}
+		}
+	}
+
+	void dissolve() {
+		for (TileEntityHood hood : this.hoods) {
+			hood.network = null;
+		}
+		HoodNetworkManager.INSTANCE.onNetworkDissolved(this);
+		for (TileEntityHood hood : this.hoods) {
+			HoodNetworkManager.INSTANCE.requestNetworking(hood);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package org.pfaa.fabrica.entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent.Phase;
+import cpw.mods.fml.common.gameevent.TickEvent.WorldTickEvent;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+
+/*
+ * Keeps the hood networks (see HoodNetwork) of each world, and has each of them move its gas
+ * once every TICKS_PER_TRANSFER ticks, instead of anything polling the hoods one by one.
+ *
+ * Hoods ask to be networked when loaded, and when their surroundings change. Networks are
+ * formed at the start of the next world tick.
+ */
+public class HoodNetworkManager {
+
+	public static final HoodNetworkManager INSTANCE = new HoodNetworkManager();
+
+	private static final int TICKS_PER_TRANSFER = 20;
+
+	private Map<World, WorldHoods> worlds = new HashMap<World, WorldHoods>();
+
+	private HoodNetworkManager() {
+	}
+
+	private static class WorldHoods {
+		final List<HoodNetwork> networks = new ArrayList<HoodNetwork>();
+		final List<TileEntityHood> unnetworked = new ArrayList<TileEntityHood>();
+	}
+
+	private WorldHoods getWorldHoods(World world) {
+		WorldHoods hoods = this.worlds.get(world);
+		if (hoods == null) {
+			hoods = new WorldHoods();
+			this.worlds.put(world, hoods);
+		}
+		return hoods;
+	}
+
+	void load(TileEntityHood hood) {
+		if (!hood.loaded) {
+			hood.loaded = true;
+			this.requestNetworking(hood);
+		}
+	}
+
+	void unload(TileEntityHood hood) {
+		if (hood.loaded) {
+			hood.loaded = false;
+			if (hood.network != null) {
+				hood.network.dissolve();
+			}
+		}
+	}
+
+	void requestNetworking(TileEntityHood hood) {
+		if (hood.loaded && !hood.networkPending) {
+			hood.networkPending = true;
+			this.getWorldHoods(hood.getWorldObj()).unnetworked.add(hood);
+		}
+	}
+
+	void onNetworkDissolved(HoodNetwork network) {
+		WorldHoods hoods = this.worlds.get(network.getWorld());
+		if (hoods != null) {
+			hoods.networks.remove(network);
+		}
+	}
+
+	public int getNetworkCount(World world) {
+		WorldHoods hoods = this.worlds.get(world);
+		return hoods == null ? 0 : hoods.networks.size();
+	}
+
+	private void formNetworks(WorldHoods hoods) {
+		List<TileEntityHood> unnetworked = hoods.unnetworked;
+		for (int i = 0; i < unnetworked.size(); i++) {
+			TileEntityHood hood = unnetworked.get(i);
+			hood.networkPending = false;
+			HoodNetwork network = HoodNetwork.form(hood);
+			if (network != null) {
+				hoods.networks.add(network);
+			}
+		}
+		unnetworked.clear();
+	}
+
+	@SubscribeEvent
+	public void onWorldTick(WorldTickEvent event) {
+		if (event.phase != Phase.END || event.world.isRemote) {
+			return;
+		}
+		WorldHoods hoods = this.worlds.get(event.world);
+		if (hoods == null) {
+			return;
+		}
+		this.formNetworks(hoods);
+		if (event.world.getTotalWorldTime() % TICKS_PER_TRANSFER != 0) {
+			return;
+		}
+		List<HoodNetwork> networks = hoods.networks;
+		for (int i = 0; i < networks.size(); i++) {
+			networks.get(i).transfer();
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		this.worlds.remove(event.world);
+	}
+}
@@ -0,0 +1,64 @@
+package org.pfaa.fabrica.entity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent.Phase;
+import cpw.mods.fml.common.gameevent.TickEvent.WorldTickEvent;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+
+/*
+ * Sends the synced fields of fabrica tiles to clients in batches (see FabricaSyncedTileEntity).
+ *
+ * A tile whose fields change is queued once, however many changes follow, and every queued
+ * tile is synced together once every TICKS_PER_SYNC ticks, so each tile sends at most one
+ * update per interval, holding all its changes since the last.
+ */
+public class SyncScheduler {
+
+	public static final SyncScheduler INSTANCE = new SyncScheduler();
+
+	private static final int TICKS_PER_SYNC = 10;
+
+	private Map<World, List<FabricaSyncedTileEntity>> worlds = new HashMap<World, List<FabricaSyncedTileEntity>>();
+
+	private SyncScheduler() {
+	}
+
+	void queue(FabricaSyncedTileEntity te) {
+		if (!te.syncQueued) {
+			te.syncQueued = true;
+			List<FabricaSyncedTileEntity> queued = this.worlds.get(te.getWorldObj());
+			if (queued == null) {
+				queued = new ArrayList<FabricaSyncedTileEntity>();
+				this.worlds.put(te.getWorldObj(), queued);
+			}
+			queued.add(te);
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldTick(WorldTickEvent event) {
+		if (event.phase != Phase.END || event.world.isRemote ||
+				event.world.getTotalWorldTime() % TICKS_PER_SYNC != 0) {
+			return;
+		}
+		List<FabricaSyncedTileEntity> queued = this.worlds.get(event.world);
+		if (queued == null || queued.isEmpty()) {
+			return;
+		}
+		for (int i = 0; i < queued.size(); i++) {
+			queued.get(i).flushSync();
+		}
+		queued.clear();
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		this.worlds.remove(event.world);
+	}
+}
@@ -1,17 +1,25 @@
 package org.pfaa.fabrica.entity;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.pfaa.fabrica.network.FabricaNetwork;
+import org.pfaa.fabrica.network.PaintRegionMessage;
+
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.ChunkCoordinates;
+import net.minecraft.world.ChunkPosition;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
 import net.minecraftforge.common.util.ForgeDirection;
 import openmods.sync.SyncableIntArray;
-import openmods.tileentity.SyncedTileEntity;
 
-public class TileEntityColored extends SyncedTileEntity {
+public class TileEntityColored extends FabricaSyncedTileEntity {
 
 	private SyncableIntArray baseColors;
 	
-	public TileEntityColored() {
-		this.syncMap.addUpdateListener(createRenderUpdateListener());
-	}
-	
 	@Override
 	protected void createSyncedFields() {
 		baseColors = new SyncableIntArray(new int[] { 0xFFFFFF, 0xFFFFFF, 0xFFFFFF, 0xFFFFFF, 0xFFFFFF, 0xFFFFFF });
@@ -27,13 +35,78 @@ public class TileEntityColored extends SyncedTileEntity {
 	}
 	
 	public boolean setColor(int color, ForgeDirection... sides) {
+		boolean hasChanged = false;
 		for (ForgeDirection side : sides) {
 			final int sideId = side.ordinal();
-			baseColors.setValue(sideId, color);
+			hasChanged |= setValue(baseColors, sideId, color);
 		}
 
-		boolean hasChanged = baseColors.isDirty();
-		if (!worldObj.isRemote) sync();
+		if (hasChanged) requestSync();
+		return hasChanged;
+	}
+	
+	/* Sets the colors without syncing them; only when no sync is pending, as that would be lost */
+	private boolean setColorUnsynced(int color, ForgeDirection... sides) {
+		boolean hasChanged = false;
+		for (ForgeDirection side : sides) {
+			hasChanged |= setValue(baseColors, side.ordinal(), color);
+		}
+		baseColors.markClean();
 		return hasChanged;
 	}
+	
+	/*
+	 * Paints the sides of every colored block in the region with one color, returning how
+	 * many changed. The changes are sent to the players watching the region as a single
+	 * PaintRegionMessage, rather than a sync per block, except for blocks already waiting
+	 * to sync, which take the change with the rest.
+	 */
+	public static int paintRegion(World world, Iterable<ChunkCoordinates> positions, int color, ForgeDirection... sides) {
+		int changed = 0;
+		List<ChunkCoordinates> painted = new ArrayList<ChunkCoordinates>();
+		Set<Long> chunks = new HashSet<Long>();
+		for (ChunkCoordinates pos : positions) {
+			if (!world.blockExists(pos.posX, pos.posY, pos.posZ)) {
+				continue;
+			}
+			TileEntity te = world.getTileEntity(pos.posX, pos.posY, pos.posZ);
+			if (!(te instanceof TileEntityColored)) {
+				continue;
+			}
+			TileEntityColored colored = (TileEntityColored)te;
+			if (world.isRemote || colored.syncQueued) {
+				if (colored.setColor(color, sides)) {
+					changed++;
+				}
+			} else if (colored.setColorUnsynced(color, sides)) {
+				colored.markDirty();
+				painted.add(pos);
+				chunks.add(FabricaNetwork.getChunkKey(pos.posX, pos.posZ));
+				changed++;
+			}
+		}
+		if (!painted.isEmpty()) {
+			FabricaNetwork.sendToWatchers((WorldServer)world, chunks, new PaintRegionMessage(painted, color, sides));
+		}
+		return changed;
+	}
+	
+	/* Client side of paintRegion(): each 16^3 section touched is re-rendered once */
+	public static void applyRegionPaint(World world, List<ChunkCoordinates> positions, int color, ForgeDirection... sides) {
+		if (world == null) {
+			return;
+		}
+		Set<ChunkPosition> sections = new HashSet<ChunkPosition>();
+		for (ChunkCoordinates pos : positions) {
+			TileEntity te = world.getTileEntity(pos.posX, pos.posY, pos.posZ);
+			if (te instanceof TileEntityColored && ((TileEntityColored)te).setColorUnsynced(color, sides)) {
+				sections.add(new ChunkPosition(pos.posX >> 4, pos.posY >> 4, pos.posZ >> 4));
+			}
+		}
+		/* the range is widened by a block when marked, so we keep inside the section */
+		for (ChunkPosition section : sections) {
+			int x = section.chunkPosX << 4, y = section.chunkPosY << 4, z = section.chunkPosZ << 4;
+			world.markBlockRangeForRenderUpdate(x + 1, y + 1, z + 1, x + 14, y + 14, z + 14);
+		}
+	}
 }
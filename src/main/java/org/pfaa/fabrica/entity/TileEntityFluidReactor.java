@@ -1,5 +1,7 @@
 package org.pfaa.fabrica.entity;
 
+import org.pfaa.chemica.model.WorldConditions;
+import org.pfaa.fabrica.Fabrica;
 import org.pfaa.fabrica.recipe.FluidReactorRecipe;
 import org.pfaa.fabrica.recipe.FluidReactorRecipes;
 
@@ -11,26 +13,54 @@ import net.minecraft.tileentity.TileEntity;
 import net.minecraftforge.common.util.ForgeDirection;
 import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidContainerRegistry;
+import net.minecraftforge.fluids.FluidRegistry;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.FluidTank;
 import net.minecraftforge.fluids.FluidTankInfo;
 import net.minecraftforge.fluids.IFluidHandler;
+import openmods.sync.SyncableIntArray;
 
-public class TileEntityFluidReactor extends TileEntity implements IFluidHandler, IEnergyReceiver {
+public class TileEntityFluidReactor extends FabricaSyncedTileEntity implements IFluidHandler, IEnergyReceiver {
+	public static final int LIQUID_OUTPUT_TANK = 0;
+	public static final int INPUT_TANK_A = 1;
+	public static final int INPUT_TANK_B = 2;
+	/* Fluid levels are synced in steps of 1/16 of the reactor volume, about one texel of height */
+	public static final int RENDER_LEVELS = 16;
+	
 	private static final int TICKS_PER_UPDATE = 20;
 	private static final int TANK_CAPACITY = FluidContainerRegistry.BUCKET_VOLUME * 3;
+	private static final int TOTAL_CAPACITY = TANK_CAPACITY * 3;
 	private static final int ENERGY_CAPACITY = 1000;
 	private static final int ENERGY_MAX_RECEIVE = 200;
 	
-	private FluidTank liquidOutputTank;
-	private FluidTank inputTankA;
-	private FluidTank inputTankB;
+	/* While clustered, these are the pooled tanks and storage of the cluster */
+	FluidTank liquidOutputTank;
+	FluidTank inputTankA;
+	FluidTank inputTankB;
 	
-	private EnergyStorage energy;
+	EnergyStorage energy;
 	
 	private ItemStack catalyst;
 	
-	private int tick;
+	/* Fraction of a recipe quantum carried over to the next cycle, in batch mode */
+	private double progress;
+	
+	/* Ticks are driven by the FluidReactorScheduler */
+	private long nextUpdate;
+	boolean loaded;
+	boolean active;
+	boolean clusterPending;
+	
+	FluidReactorCluster cluster;
+	private int clusterIndex;
+	
+	/* Last recipe matched by the input fluids and catalyst, which amounts and energy do not affect */
+	private FluidReactorRecipe cachedRecipe;
+	private Fluid cachedFluidA, cachedFluidB;
+	private int cachedGeneration = -1;
+	
+	/* Per tank: (fluid ID + 1) << 5 | level, or 0 when empty */
+	private SyncableIntArray tankLevels;
 	
 	public TileEntityFluidReactor() {
 		this.liquidOutputTank = new FluidTank(TANK_CAPACITY);
@@ -40,62 +70,219 @@ public class TileEntityFluidReactor extends TileEntity implements IFluidHandler,
 	}
 	
 	@Override
-	public void updateEntity() {
-		if (this.worldObj.isRemote) {
-			return;
+	protected void createSyncedFields() {
+		this.tankLevels = new SyncableIntArray(new int[3]);
+	}
+	
+	@Override
+	public boolean canUpdate() {
+		return false;
+	}
+	
+	@Override
+	public void validate() {
+		super.validate();
+		if (!this.worldObj.isRemote) {
+			FluidReactorScheduler.INSTANCE.load(this);
 		}
-		this.tick++;
-		if (!this.onStep(TICKS_PER_UPDATE)) {
-			return;
+	}
+	
+	@Override
+	public void invalidate() {
+		super.invalidate();
+		FluidReactorScheduler.INSTANCE.unload(this);
+	}
+	
+	@Override
+	public void onChunkUnload() {
+		super.onChunkUnload();
+		FluidReactorScheduler.INSTANCE.unload(this);
+	}
+	
+	private void wake() {
+		if (this.worldObj != null && !this.worldObj.isRemote) {
+			FluidReactorScheduler.INSTANCE.wake(this);
 		}
+	}
+	
+	public void onNeighborChanged() {
+		if (this.cluster != null) {
+			this.cluster.dissolve();
+		} else {
+			FluidReactorScheduler.INSTANCE.requestClustering(this);
+		}
+	}
+	
+	static FluidReactorCluster formCluster(TileEntityFluidReactor seed) {
+		return FluidReactorCluster.form(seed, TANK_CAPACITY, ENERGY_CAPACITY, ENERGY_MAX_RECEIVE);
+	}
+	
+	void joinCluster(FluidReactorCluster cluster, int index) {
+		this.cluster = cluster;
+		this.clusterIndex = index;
+		this.liquidOutputTank = cluster.liquidOutputTank;
+		this.inputTankA = cluster.inputTankA;
+		this.inputTankB = cluster.inputTankB;
+		this.energy = cluster.energy;
+	}
+	
+	void leaveCluster() {
+		FluidReactorCluster cluster = this.cluster;
+		int index = this.clusterIndex;
+		this.liquidOutputTank = cluster.getShare(cluster.liquidOutputTank, TANK_CAPACITY, index);
+		this.inputTankA = cluster.getShare(cluster.inputTankA, TANK_CAPACITY, index);
+		this.inputTankB = cluster.getShare(cluster.inputTankB, TANK_CAPACITY, index);
+		this.energy = cluster.getShare(cluster.energy, ENERGY_CAPACITY, ENERGY_MAX_RECEIVE, index);
+		this.cluster = null;
+		this.cachedGeneration = -1;
+		this.onTanksChanged();
+	}
+	
+	/* Returns false when the reactor cannot make progress, and should go dormant */
+	boolean updateReactor(long now) {
+		if (this.cluster != null && this.cluster.getLeader() != this) {
+			return false;
+		}
+		if (now < this.nextUpdate) {
+			return true;
+		}
+		this.nextUpdate = now + TICKS_PER_UPDATE;
 		FluidReactorRecipe recipe = this.getRecipe();
-		if (recipe == null) {
+		int quanta = recipe == null ? 0 : this.getAvailableQuanta(recipe);
+		if (quanta == 0) {
+			return false;
+		}
+		int reactors = this.cluster == null ? 1 : this.cluster.size();
+		if (Fabrica.getConfiguration().isBatchFluidReactorEnabled()) {
+			/* local heat sources (e.g., torches) only stand for the heat the reactor provides itself */
+			this.progress += reactors * recipe.getRate(WorldConditions.INSTANCE.getTemperature(this.worldObj, 
+					this.xCoord, this.yCoord, this.zCoord));
+			quanta = Math.min(quanta, (int)this.progress);
+			this.progress = Math.min(this.progress - quanta, reactors);
+		} else {
+			quanta = Math.min(quanta, reactors);
+		}
+		this.produce(recipe, quanta);
+		this.consume(recipe, quanta);
+		this.onTanksChanged();
+		return true;
+	}
+	
+	/* Number of times the recipe could run, given the inputs, energy and room for the output */
+	private int getAvailableQuanta(FluidReactorRecipe recipe) {
+		int quanta = getAvailableQuanta(this.inputTankA.getFluid(), recipe.inputA);
+		quanta = Math.min(quanta, getAvailableQuanta(this.inputTankB.getFluid(), recipe.inputB));
+		if (recipe.energy > 0) {
+			quanta = Math.min(quanta, this.energy.getEnergyStored() / recipe.energy);
+		}
+		FluidStack output = recipe.liquidOutput;
+		if (output != null && output.amount > 0) {
+			int room = this.liquidOutputTank.fill(new FluidStack(output, this.liquidOutputTank.getCapacity()), false);
+			quanta = Math.min(quanta, room / output.amount);
+		}
+		return quanta;
+	}
+	
+	private static int getAvailableQuanta(FluidStack available, FluidStack required) {
+		if (required == null || required.amount <= 0) {
+			return Integer.MAX_VALUE;
+		}
+		return available == null ? 0 : available.amount / required.amount;
+	}
+	
+	private static FluidStack scale(FluidStack stack, int quanta) {
+		return stack == null ? null : new FluidStack(stack, stack.amount * quanta);
+	}
+	
+	/* The level of an average share of the tank, among the given number of reactors */
+	static int getTankLevel(FluidTank tank, int reactors) {
+		FluidStack fluid = tank.getFluid();
+		if (fluid == null || fluid.getFluid() == null || fluid.amount <= 0) {
+			return 0;
+		}
+		int amount = fluid.amount / reactors;
+		int level = Math.min((amount * RENDER_LEVELS + TOTAL_CAPACITY - 1) / TOTAL_CAPACITY, RENDER_LEVELS);
+		return (fluid.getFluid().getID() + 1) << 5 | Math.max(level, 1);
+	}
+	
+	/* Only changes that are visible on the client are synced, and only those cause a re-render */
+	private void onTanksChanged() {
+		if (this.worldObj == null || this.worldObj.isRemote) {
 			return;
 		}
-		this.produce(recipe);
-		this.consume(recipe);
+		if (this.cluster != null) {
+			this.cluster.updateTankLevels(false);
+		} else {
+			this.setTankLevels(getTankLevel(this.liquidOutputTank, 1), 
+					getTankLevel(this.inputTankA, 1), getTankLevel(this.inputTankB, 1));
+		}
+	}
+	
+	boolean setTankLevels(int liquidOutput, int inputA, int inputB) {
+		boolean changed = setValue(this.tankLevels, LIQUID_OUTPUT_TANK, liquidOutput);
+		changed |= setValue(this.tankLevels, INPUT_TANK_A, inputA);
+		changed |= setValue(this.tankLevels, INPUT_TANK_B, inputB);
+		if (changed) {
+			this.requestSync();
+		}
+		return changed;
+	}
+	
+	/* Fluid in the tank, as last synced */
+	public Fluid getRenderedFluid(int tank) {
+		int level = this.tankLevels.getValue(tank);
+		return level == 0 ? null : FluidRegistry.getFluid((level >> 5) - 1);
+	}
+	
+	/* Fraction of the reactor volume filled by the tank, as last synced */
+	public float getRenderedLevel(int tank) {
+		return (float)(this.tankLevels.getValue(tank) & 31) / RENDER_LEVELS;
 	}
 
-	private void consume(FluidReactorRecipe recipe) {
-		this.inputTankA.drain(recipe.inputA.amount, true);
+	private void consume(FluidReactorRecipe recipe, int quanta) {
+		if (recipe.inputA != null) {
+			this.inputTankA.drain(recipe.inputA.amount * quanta, true);
+		}
 		if (recipe.inputB != null) {
-			this.inputTankB.drain(recipe.inputB.amount, true);
+			this.inputTankB.drain(recipe.inputB.amount * quanta, true);
 		}
-		this.energy.extractEnergy(recipe.energy, false);
+		/* not extractEnergy(), which is limited to the rate at which energy is received */
+		this.energy.setEnergyStored(this.energy.getEnergyStored() - recipe.energy * quanta);
 	}
 
-	private void produce(FluidReactorRecipe recipe) {
-		this.liquidOutputTank.fill(recipe.liquidOutput, true);
-		this.fillHood(recipe.gasOutput);
+	private void produce(FluidReactorRecipe recipe, int quanta) {
+		this.liquidOutputTank.fill(scale(recipe.liquidOutput, quanta), true);
+		FluidStack gas = scale(recipe.gasOutput, quanta);
+		if (this.cluster != null) {
+			this.cluster.vent(gas);
+		} else {
+			this.fillHood(gas);
+		}
 	}
 
-	private void fillHood(FluidStack gas) {
+	int fillHood(FluidStack gas) {
 		TileEntity te = this.worldObj.getTileEntity(this.xCoord, this.yCoord + 1, this.zCoord);
 		if (te instanceof TileEntityHood) {
-			((TileEntityHood) te).fill(ForgeDirection.DOWN, gas, true);
+			return ((TileEntityHood) te).fill(ForgeDirection.DOWN, gas, true);
 		}
+		return 0;
 	}
 
-	private boolean onStep(int ticksPerUpdate) {
-		return this.tick % ticksPerUpdate == 0;
+	private static Fluid getFluid(FluidTank tank) {
+		FluidStack stack = tank.getFluid();
+		return stack == null ? null : stack.getFluid();
 	}
 	
 	private FluidReactorRecipe getRecipe() {
-		FluidReactorRecipe recipe;
-		if (this.inputTankB.getFluid() != null) {
-			recipe = this.getRecipe(this.inputTankB.getFluid());
-		} else {
-			recipe = this.getRecipe(null);
+		Fluid fluidA = getFluid(this.inputTankA), fluidB = getFluid(this.inputTankB);
+		if (fluidA != this.cachedFluidA || fluidB != this.cachedFluidB || 
+				this.cachedGeneration != FluidReactorRecipes.getGeneration()) {
+			this.cachedRecipe = FluidReactorRecipes.getRecipe(fluidA, fluidB, this.getCatalyst());
+			this.cachedFluidA = fluidA;
+			this.cachedFluidB = fluidB;
+			this.cachedGeneration = FluidReactorRecipes.getGeneration();
 		}
-		return recipe;
-	}
-
-	private FluidReactorRecipe getRecipe(FluidStack fluidB) {
-		return FluidReactorRecipes.getRecipeForResources(
-				this.inputTankA.getFluid(),
-				fluidB,
-				this.getCatalyst(),
-				this.energy.getEnergyStored());
+		return this.cachedRecipe;
 	}
 	
 	public ItemStack getCatalyst() {
@@ -103,7 +290,13 @@ public class TileEntityFluidReactor extends TileEntity implements IFluidHandler,
 	}
 	
 	public void setCatalyst(ItemStack catalyst) {
+		if (this.cluster != null) {
+			this.cluster.dissolve();
+		}
 		this.catalyst = catalyst;
+		this.cachedGeneration = -1;
+		FluidReactorScheduler.INSTANCE.requestClustering(this);
+		this.wake();
 	}
 
 	@Override
@@ -112,12 +305,16 @@ public class TileEntityFluidReactor extends TileEntity implements IFluidHandler,
 			return 0;
 		}
 		if (resource.getFluid().isGaseous() && !hasHood()) {
-			return resource.amount;
+			return 0;
 		}
 		int amount = this.inputTankA.fill(resource, doFill);
 		if (amount == 0) {
 			amount = this.inputTankB.fill(resource, doFill);
 		}
+		if (doFill && amount > 0) {
+			this.onTanksChanged();
+			this.wake();
+		}
 		return amount;
 	}
 
@@ -135,7 +332,12 @@ public class TileEntityFluidReactor extends TileEntity implements IFluidHandler,
 		if (from == ForgeDirection.UP) {
 			return null;
 		}
-		return this.liquidOutputTank.drain(maxDrain, doDrain);
+		FluidStack drained = this.liquidOutputTank.drain(maxDrain, doDrain);
+		if (doDrain && drained != null) {
+			this.onTanksChanged();
+			this.wake();
+		}
+		return drained;
 	}
 
 	@Override
@@ -161,31 +363,54 @@ public class TileEntityFluidReactor extends TileEntity implements IFluidHandler,
 		};
 	}
 	
+	private static boolean isGaseous(FluidTank tank) {
+		Fluid fluid = getFluid(tank);
+		return fluid != null && fluid.isGaseous();
+	}
+	
+	/* Only this reactor's share is flushed, not the tanks of its cluster */
 	public void flush(boolean flushLiquids) {
-		if (flushLiquids || this.inputTankA.getFluid().getFluid().isGaseous())
+		if (this.cluster != null) {
+			this.cluster.dissolve();
+		}
+		if (flushLiquids || isGaseous(this.inputTankA))
 			this.inputTankA.drain(this.inputTankA.getCapacity(), true);
-		if (flushLiquids || this.inputTankB.getFluid().getFluid().isGaseous())
+		if (flushLiquids || isGaseous(this.inputTankB))
 			this.inputTankB.drain(this.inputTankB.getCapacity(), true);
-		if (flushLiquids || this.liquidOutputTank.getFluid().getFluid().isGaseous())
+		if (flushLiquids || isGaseous(this.liquidOutputTank))
 			this.liquidOutputTank.drain(this.liquidOutputTank.getCapacity(), true);
+		this.onTanksChanged();
+		this.wake();
 	}
 	
 	@Override
 	public void readFromNBT(NBTTagCompound tag) {
+		super.readFromNBT(tag);
 		this.inputTankA.readFromNBT(tag.getCompoundTag("inputTankA"));
 		this.inputTankB.readFromNBT(tag.getCompoundTag("inputTankB"));
 		this.liquidOutputTank.readFromNBT(tag.getCompoundTag("liquidOutputTank"));
 		this.energy.readFromNBT(tag.getCompoundTag("energy"));
-		this.catalyst.readFromNBT(tag.getCompoundTag("catalyst"));
+		this.setCatalyst(tag.hasKey("catalyst") ? ItemStack.loadItemStackFromNBT(tag.getCompoundTag("catalyst")) : null);
 	}
 
 	@Override
 	public void writeToNBT(NBTTagCompound tag) {
-		tag.setTag("inputTankA", this.inputTankA.writeToNBT(new NBTTagCompound()));
-		tag.setTag("inputTankB", this.inputTankB.writeToNBT(new NBTTagCompound()));
-		tag.setTag("liquidOutputTank", this.liquidOutputTank.writeToNBT(new NBTTagCompound()));
-		tag.setTag("energy", this.energy.writeToNBT(new NBTTagCompound()));
-		tag.setTag("catalyst", this.catalyst.writeToNBT(new NBTTagCompound()));
+		super.writeToNBT(tag);
+		FluidTank inputTankA = this.inputTankA, inputTankB = this.inputTankB, liquidOutputTank = this.liquidOutputTank;
+		EnergyStorage energy = this.energy;
+		if (this.cluster != null) {
+			inputTankA = this.cluster.getShare(inputTankA, TANK_CAPACITY, this.clusterIndex);
+			inputTankB = this.cluster.getShare(inputTankB, TANK_CAPACITY, this.clusterIndex);
+			liquidOutputTank = this.cluster.getShare(liquidOutputTank, TANK_CAPACITY, this.clusterIndex);
+			energy = this.cluster.getShare(energy, ENERGY_CAPACITY, ENERGY_MAX_RECEIVE, this.clusterIndex);
+		}
+		tag.setTag("inputTankA", inputTankA.writeToNBT(new NBTTagCompound()));
+		tag.setTag("inputTankB", inputTankB.writeToNBT(new NBTTagCompound()));
+		tag.setTag("liquidOutputTank", liquidOutputTank.writeToNBT(new NBTTagCompound()));
+		tag.setTag("energy", energy.writeToNBT(new NBTTagCompound()));
+		if (this.catalyst != null) {
+			tag.setTag("catalyst", this.catalyst.writeToNBT(new NBTTagCompound()));
+		}
 	}
 
 	@Override
@@ -195,7 +420,11 @@ public class TileEntityFluidReactor extends TileEntity implements IFluidHandler,
 
 	@Override
 	public int receiveEnergy(ForgeDirection from, int maxReceive, boolean simulate) {
-		return this.energy.receiveEnergy(maxReceive, simulate);
+		int received = this.energy.receiveEnergy(maxReceive, simulate);
+		if (!simulate && received > 0) {
+			this.wake();
+		}
+		return received;
 	}
 
 	@Override
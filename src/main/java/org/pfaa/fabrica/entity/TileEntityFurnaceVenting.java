@@ -1,36 +1,97 @@
 package org.pfaa.fabrica.entity;
 
-import org.pfaa.fabrica.FabricaBlocks;
-import org.pfaa.fabrica.block.HoodBlock;
 import org.pfaa.fabrica.recipe.HoodRecipes;
 
-import net.minecraft.block.Block;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraft.tileentity.TileEntityFurnace;
+import net.minecraftforge.common.util.ForgeDirection;
+import net.minecraftforge.fluids.FluidContainerRegistry;
 import net.minecraftforge.fluids.FluidStack;
 
+/*
+ * A furnace under a hood. Gas emitted by smelting is collected, and vented to the hood
+ * once per second, or earlier when a different gas comes along. Gas the hood cannot take
+ * is held back, up to a bucket, and beyond that escapes.
+ */
 public class TileEntityFurnaceVenting extends TileEntityFurnace {
 
+	private static final int TICKS_PER_VENT = 20;
+	private static final int MAX_PENDING = FluidContainerRegistry.BUCKET_VOLUME;
+
+	private FluidStack pending;
+	private int ticksSinceVent;
+
+	public TileEntityFurnaceVenting() {
+	}
+
 	public TileEntityFurnaceVenting(TileEntityFurnace te) {
 		NBTTagCompound nbt = new NBTTagCompound();
 		te.writeToNBT(nbt);
 		this.readFromNBT(nbt);
 	}
 
-	private void vent(FluidStack gas) {
-		Block above = this.worldObj.getBlock(this.xCoord, this.yCoord + 1, this.zCoord);
-		if (above == FabricaBlocks.HOOD) {
-			((HoodBlock)above).fill(this.worldObj, this.xCoord, this.yCoord + 1, this.zCoord, gas);
+	private void vent() {
+		TileEntity te = this.worldObj.getTileEntity(this.xCoord, this.yCoord + 1, this.zCoord);
+		if (te instanceof TileEntityHood) {
+			int filled = ((TileEntityHood)te).fill(ForgeDirection.DOWN, this.pending, true);
+			this.pending.amount -= filled;
+		}
+		this.pending.amount = Math.min(this.pending.amount, MAX_PENDING);
+		if (this.pending.amount <= 0) {
+			this.pending = null;
+		}
+		this.ticksSinceVent = 0;
+	}
+
+	private void emit(FluidStack emission) {
+		if (this.pending != null && !this.pending.isFluidEqual(emission)) {
+			this.vent();
+		}
+		if (this.pending == null) {
+			this.pending = new FluidStack(emission, 0);
+		}
+		this.pending.amount += emission.amount;
+	}
+
+	@Override
+	public void updateEntity() {
+		super.updateEntity();
+		if (this.pending != null && !this.worldObj.isRemote && ++this.ticksSinceVent >= TICKS_PER_VENT) {
+			this.vent();
 		}
 	}
-	
+
 	@Override
 	public void smeltItem() {
-		ItemStack consumed = this.getStackInSlot(0).copy();
+		ItemStack consumed = this.getStackInSlot(0);
+		if (consumed == null) {
+			super.smeltItem();
+			return;
+		}
+		int stackSize = consumed.stackSize;
+		FluidStack emission = HoodRecipes.getEmission(consumed.getItem(), consumed.getItemDamage());
 		super.smeltItem();
-		consumed.stackSize = 1;
-		this.vent(HoodRecipes.getOutput(consumed));
+		ItemStack remaining = this.getStackInSlot(0);
+		boolean smelted = remaining == null || remaining.stackSize < stackSize;
+		if (emission != null && smelted) {
+			this.emit(emission);
+		}
 	}
 
+	@Override
+	public void readFromNBT(NBTTagCompound nbt) {
+		super.readFromNBT(nbt);
+		this.pending = nbt.hasKey("pendingGas") ?
+				FluidStack.loadFluidStackFromNBT(nbt.getCompoundTag("pendingGas")) : null;
+	}
+
+	@Override
+	public void writeToNBT(NBTTagCompound nbt) {
+		super.writeToNBT(nbt);
+		if (this.pending != null) {
+			nbt.setTag("pendingGas", this.pending.writeToNBT(new NBTTagCompound()));
+		}
+	}
 }
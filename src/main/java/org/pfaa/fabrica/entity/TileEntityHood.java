@@ -1,14 +1,27 @@
 package org.pfaa.fabrica.entity;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.common.util.ForgeDirection;
 import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidContainerRegistry;
+import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fluids.FluidTank;
 import net.minecraftforge.fluids.IFluidHandler;
 import net.minecraftforge.fluids.TileFluidHandler;
 
 public class TileEntityHood extends TileFluidHandler implements IFluidHandler {
 
+	/* Total amount of each gas (by fluid name) taken in from below, for pollution accounting */
+	private Map<String, Long> emissions = new HashMap<String, Long>();
+	
+	/* Managed by HoodNetworkManager */
+	boolean loaded;
+	boolean networkPending;
+	HoodNetwork network;
+	
 	public TileEntityHood() {
 		this.tank = new FluidTank(FluidContainerRegistry.BUCKET_VOLUME * 20);
 	}
@@ -18,6 +31,48 @@ public class TileEntityHood extends TileFluidHandler implements IFluidHandler {
         return false;
     }
 	
+    @Override
+    public void validate()
+    {
+        super.validate();
+        if (!this.worldObj.isRemote) {
+            HoodNetworkManager.INSTANCE.load(this);
+        }
+    }
+    
+    @Override
+    public void invalidate()
+    {
+        super.invalidate();
+        HoodNetworkManager.INSTANCE.unload(this);
+    }
+    
+    @Override
+    public void onChunkUnload()
+    {
+        super.onChunkUnload();
+        HoodNetworkManager.INSTANCE.unload(this);
+    }
+    
+    public void onNeighborChanged()
+    {
+        if (this.network != null) {
+            this.network.dissolve();
+        } else {
+            HoodNetworkManager.INSTANCE.requestNetworking(this);
+        }
+    }
+    
+    FluidStack getGas()
+    {
+        return this.tank.getFluid();
+    }
+    
+    int getCapacity()
+    {
+        return this.tank.getCapacity();
+    }
+	
     @Override
     public boolean canFill(ForgeDirection from, Fluid fluid)
     {
@@ -29,4 +84,53 @@ public class TileEntityHood extends TileFluidHandler implements IFluidHandler {
     {
         return from != ForgeDirection.DOWN;
     }
+    
+    @Override
+    public int fill(ForgeDirection from, FluidStack resource, boolean doFill)
+    {
+        int filled = super.fill(from, resource, doFill);
+        if (doFill && filled > 0 && from == ForgeDirection.DOWN) {
+            String name = resource.getFluid().getName();
+            Long total = this.emissions.get(name);
+            this.emissions.put(name, (total == null ? 0 : total) + filled);
+        }
+        return filled;
+    }
+    
+    public long getTotalEmission(Fluid gas)
+    {
+        Long total = this.emissions.get(gas.getName());
+        return total == null ? 0 : total;
+    }
+    
+    public long getTotalEmission()
+    {
+        long total = 0;
+        for (long emission : this.emissions.values()) {
+            total += emission;
+        }
+        return total;
+    }
+    
+    @Override
+    public void readFromNBT(NBTTagCompound tag)
+    {
+        super.readFromNBT(tag);
+        this.emissions.clear();
+        NBTTagCompound emissions = tag.getCompoundTag("emissions");
+        for (Object key : emissions.func_150296_c()) {
+            this.emissions.put((String)key, emissions.getLong((String)key));
+        }
+    }
+    
+    @Override
+    public void writeToNBT(NBTTagCompound tag)
+    {
+        super.writeToNBT(tag);
+        NBTTagCompound emissions = new NBTTagCompound();
+        for (Map.Entry<String, Long> entry : this.emissions.entrySet()) {
+            emissions.setLong(entry.getKey(), entry.getValue());
+        }
+        tag.setTag("emissions", emissions);
+    }
 }
@@ -26,7 +26,8 @@ public class FabricaRecipeRegistry extends AbstractRecipeRegistry {
 			ItemStack solidOutput, FluidStack liquidOutput, FluidStack gasOutput, Condition condition, Set<ItemStack> catalyst) {
 		if (solidInputs.size() == 0 && solidOutput == null) {
 			int energy = RecipeCostUtils.rfFromCondition(condition);
-			FluidReactorRecipes.addRecipe(fluidInput, fluidInput2, energy, catalyst, liquidOutput, gasOutput);
+			FluidReactorRecipes.addRecipe(fluidInput, fluidInput2, energy, condition.temperature, catalyst, 
+					liquidOutput, gasOutput);
 		}
 	}
 
@@ -34,7 +35,7 @@ public class FabricaRecipeRegistry extends AbstractRecipeRegistry {
 	public void registerDistillationRecipe(FluidStack input, List<FluidStack> outputs, Condition condition) {
 		if (outputs.size() == 2) {
 			int energy = RecipeCostUtils.rfFromCondition(condition);
-			FluidReactorRecipes.addRecipe(input, null, energy, null, outputs.get(0), outputs.get(1));
+			FluidReactorRecipes.addRecipe(input, null, energy, condition.temperature, null, outputs.get(0), outputs.get(1));
 		}
 	}
 }
@@ -0,0 +1,40 @@
+package org.pfaa.fabrica.network;
+
+import java.util.Set;
+
+import cpw.mods.fml.common.network.NetworkRegistry;
+import cpw.mods.fml.common.network.simpleimpl.IMessage;
+import cpw.mods.fml.common.network.simpleimpl.SimpleNetworkWrapper;
+import cpw.mods.fml.relauncher.Side;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.WorldServer;
+
+public class FabricaNetwork {
+
+	public static final SimpleNetworkWrapper CHANNEL = NetworkRegistry.INSTANCE.newSimpleChannel("PFAAFabrica");
+
+	private static final int PAINT_REGION = 0;
+
+	public static void init() {
+		CHANNEL.registerMessage(PaintRegionMessage.Handler.class, PaintRegionMessage.class, PAINT_REGION, Side.CLIENT);
+	}
+
+	/* Sends the message once to each player watching any of the chunks, given as ChunkCoordIntPair.chunkXZ2Int() keys */
+	public static void sendToWatchers(WorldServer world, Set<Long> chunks, IMessage message) {
+		for (Object player : world.playerEntities) {
+			EntityPlayerMP playerMP = (EntityPlayerMP)player;
+			for (long chunk : chunks) {
+				int chunkX = (int)chunk, chunkZ = (int)(chunk >> 32);
+				if (world.getPlayerManager().isPlayerWatchingChunk(playerMP, chunkX, chunkZ)) {
+					CHANNEL.sendTo(message, playerMP);
+					break;
+				}
+			}
+		}
+	}
+
+	public static long getChunkKey(int x, int z) {
+		return ChunkCoordIntPair.chunkXZ2Int(x >> 4, z >> 4);
+	}
+}
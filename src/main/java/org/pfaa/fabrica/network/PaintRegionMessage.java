@@ -0,0 +1,140 @@
+package org.pfaa.fabrica.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.pfaa.fabrica.Fabrica;
+import org.pfaa.fabrica.entity.TileEntityColored;
+
+import cpw.mods.fml.common.network.ByteBufUtils;
+import cpw.mods.fml.common.network.simpleimpl.IMessage;
+import cpw.mods.fml.common.network.simpleimpl.IMessageHandler;
+import cpw.mods.fml.common.network.simpleimpl.MessageContext;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.util.ChunkCoordinates;
+import net.minecraftforge.common.util.ForgeDirection;
+
+/*
+ * One colour painted on the same sides of many colored blocks (see TileEntityColored.paintRegion()).
+ *
+ * Positions are sent relative to the low corner of the region, as runs of blocks along X,
+ * so a painted wall costs a few bytes per row, rather than a packet per block.
+ */
+public class PaintRegionMessage implements IMessage {
+
+	private static final Comparator<ChunkCoordinates> RUN_ORDER = new Comparator<ChunkCoordinates>() {
+		@Override
+		public int compare(ChunkCoordinates a, ChunkCoordinates b) {
+			if (a.posY != b.posY) {
+				return a.posY < b.posY ? -1 : 1;
+			}
+			if (a.posZ != b.posZ) {
+				return a.posZ < b.posZ ? -1 : 1;
+			}
+			return a.posX < b.posX ? -1 : (a.posX == b.posX ? 0 : 1);
+		}
+	};
+
+	private List<ChunkCoordinates> positions;
+	private int color;
+	private int sideMask;
+
+	public PaintRegionMessage() {
+	}
+
+	public PaintRegionMessage(List<ChunkCoordinates> positions, int color, ForgeDirection... sides) {
+		this.positions = positions;
+		this.color = color;
+		for (ForgeDirection side : sides) {
+			this.sideMask |= 1 << side.ordinal();
+		}
+	}
+
+	public List<ChunkCoordinates> getPositions() {
+		return this.positions;
+	}
+
+	public int getColor() {
+		return this.color;
+	}
+
+	public ForgeDirection[] getSides() {
+		List<ForgeDirection> sides = new ArrayList<ForgeDirection>();
+		for (ForgeDirection side : ForgeDirection.VALID_DIRECTIONS) {
+			if ((this.sideMask & 1 << side.ordinal()) != 0) {
+				sides.add(side);
+			}
+		}
+		return sides.toArray(new ForgeDirection[sides.size()]);
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf) {
+		List<ChunkCoordinates> sorted = new ArrayList<ChunkCoordinates>(this.positions);
+		Collections.sort(sorted, RUN_ORDER);
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+		for (ChunkCoordinates pos : sorted) {
+			minX = Math.min(minX, pos.posX);
+			minY = Math.min(minY, pos.posY);
+			minZ = Math.min(minZ, pos.posZ);
+		}
+		List<int[]> runs = new ArrayList<int[]>();
+		int[] run = null;
+		for (ChunkCoordinates pos : sorted) {
+			boolean sameRow = run != null && pos.posY == run[1] && pos.posZ == run[2];
+			if (sameRow && pos.posX < run[0] + run[3]) {
+				continue; // listed twice
+			}
+			if (sameRow && pos.posX == run[0] + run[3]) {
+				run[3]++;
+			} else {
+				run = new int[] { pos.posX, pos.posY, pos.posZ, 1 };
+				runs.add(run);
+			}
+		}
+		buf.writeInt(minX);
+		buf.writeInt(minY);
+		buf.writeInt(minZ);
+		buf.writeInt(this.color);
+		buf.writeByte(this.sideMask);
+		ByteBufUtils.writeVarInt(buf, runs.size(), 5);
+		for (int[] r : runs) {
+			ByteBufUtils.writeVarInt(buf, r[0] - minX, 5);
+			ByteBufUtils.writeVarInt(buf, r[1] - minY, 5);
+			ByteBufUtils.writeVarInt(buf, r[2] - minZ, 5);
+			ByteBufUtils.writeVarInt(buf, r[3], 5);
+		}
+	}
+
+	@Override
+	public void fromBytes(ByteBuf buf) {
+		int minX = buf.readInt();
+		int minY = buf.readInt();
+		int minZ = buf.readInt();
+		this.color = buf.readInt();
+		this.sideMask = buf.readByte();
+		int runs = ByteBufUtils.readVarInt(buf, 5);
+		this.positions = new ArrayList<ChunkCoordinates>();
+		for (int i = 0; i < runs; i++) {
+			int x = minX + ByteBufUtils.readVarInt(buf, 5);
+			int y = minY + ByteBufUtils.readVarInt(buf, 5);
+			int z = minZ + ByteBufUtils.readVarInt(buf, 5);
+			int length = ByteBufUtils.readVarInt(buf, 5);
+			for (int dx = 0; dx < length; dx++) {
+				this.positions.add(new ChunkCoordinates(x + dx, y, z));
+			}
+		}
+	}
+
+	/* Registered on both sides, so the client world is only reached through the proxy */
+	public static class Handler implements IMessageHandler<PaintRegionMessage, IMessage> {
+		@Override
+		public IMessage onMessage(PaintRegionMessage message, MessageContext ctx) {
+			TileEntityColored.applyRegionPaint(Fabrica.registrant.getClientWorld(), message.getPositions(), 
+					message.getColor(), message.getSides());
+			return null;
+		}
+	}
+}
@@ -2,30 +2,57 @@ package org.pfaa.fabrica.recipe;
 
 import java.util.Set;
 
+import org.pfaa.chemica.model.Constants;
+
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.fluids.FluidStack;
 
 public class FluidReactorRecipe {
+	/* A typical activation energy, for which the rate about doubles with every 10K near room temperature */
+	private static final double ACTIVATION_ENERGY = 50000; // J/mol
+	private static final double MAX_RATE = 16;
+	/* How far the surroundings must be above the recipe temperature before they help */
+	private static final int TEMPERATURE_MARGIN = 25; // K
+	
 	public final FluidStack inputA;
 	public final FluidStack inputB;
 	public final int energy;
+	public final int temperature; // K
 	public final Set<ItemStack> catalysts;
 	
 	public final FluidStack liquidOutput;
 	public final FluidStack gasOutput;
 	
-	public FluidReactorRecipe(FluidStack inputA, FluidStack inputB, int energy, Set<ItemStack> catalyst, 
+	public FluidReactorRecipe(FluidStack inputA, FluidStack inputB, int energy, int temperature, Set<ItemStack> catalyst, 
 			FluidStack liquidOutput, FluidStack gasOutput) {
 		super();
 		this.inputA = inputA;
 		this.inputB = inputB;
 		this.energy = energy;
+		this.temperature = temperature;
 		this.catalysts = catalyst;
 		this.liquidOutput = liquidOutput;
 		this.gasOutput = gasOutput;
 	}
 
 	public FluidReactorRecipe reverseInputs() {
-		return new FluidReactorRecipe(this.inputB, this.inputA, this.energy, this.catalysts, this.liquidOutput, this.gasOutput);
+		return new FluidReactorRecipe(this.inputB, this.inputA, this.energy, this.temperature, this.catalysts, 
+				this.liquidOutput, this.gasOutput);
+	}
+	
+	/*
+	 * Number of times the recipe runs per reactor cycle, given the ambient temperature (K) of
+	 * its surroundings. The reactor spends energy to reach the recipe temperature, so the rate
+	 * is one there. Only surroundings hotter than that by more than TEMPERATURE_MARGIN (e.g., a
+	 * hot biome or dimension) speed it up, according to the Arrhenius equation for the excess
+	 * over the margin.
+	 */
+	public double getRate(int ambientTemperature) {
+		int temperature = ambientTemperature - TEMPERATURE_MARGIN;
+		if (temperature <= this.temperature) {
+			return 1;
+		}
+		double rate = Math.exp(ACTIVATION_ENERGY / Constants.R * (1.0 / this.temperature - 1.0 / temperature));
+		return Math.min(rate, MAX_RATE);
 	}
 }
@@ -1,60 +1,114 @@
 package org.pfaa.fabrica.recipe;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
-import org.pfaa.fabrica.util.UnorderedPair;
+import org.pfaa.core.item.ItemStackKey;
+import org.pfaa.core.util.IntSet;
 
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.LongHashMap;
 import net.minecraftforge.fluids.Fluid;
 import net.minecraftforge.fluids.FluidStack;
 
+/*
+ * Recipes are compiled into a table keyed by the IDs of both input fluids, in both orders,
+ * each entry holding the recipe with its inputs in that order, and its catalysts as a set of
+ * packed item ID/damage keys. As fluid and item IDs depend on the world, the table is
+ * compiled again once the server has loaded its worlds (see compile()), and lookups made
+ * with an older table can be told apart by getGeneration().
+ */
 public class FluidReactorRecipes {
-	private static final Map<UnorderedPair<Fluid>, FluidReactorRecipe> recipes = 
-			new HashMap<UnorderedPair<Fluid>, FluidReactorRecipe>();
-	
-	public static void addRecipe(FluidStack inputA, FluidStack inputB, int energy, Set<ItemStack> catalyst, 
+	private static final List<FluidReactorRecipe> recipes = new ArrayList<FluidReactorRecipe>();
+
+	private static LongHashMap compiled;
+	private static int generation;
+
+	private static class CompiledRecipe {
+		final FluidReactorRecipe recipe;
+		final IntSet catalysts;
+
+		CompiledRecipe(FluidReactorRecipe recipe, IntSet catalysts) {
+			this.recipe = recipe;
+			this.catalysts = catalysts;
+		}
+	}
+
+	public static void addRecipe(FluidStack inputA, FluidStack inputB, int energy, int temperature, Set<ItemStack> catalyst,
 			FluidStack liquidOutput, FluidStack gasOutput) {
-		FluidReactorRecipe recipe = new FluidReactorRecipe(inputA, inputB, energy, catalyst, liquidOutput, gasOutput);
-		UnorderedPair<Fluid> key = UnorderedPair.of(inputA.getFluid(), inputB.getFluid());
-		recipes.put(key, recipe);
+		recipes.add(new FluidReactorRecipe(inputA, inputB, energy, temperature, catalyst, liquidOutput, gasOutput));
+		compiled = null;
 	}
-	
-	private static FluidReactorRecipe getRecipe(UnorderedPair<Fluid> inputs) {
-		return recipes.get(inputs);
+
+	public static void compile() {
+		LongHashMap table = new LongHashMap();
+		for (FluidReactorRecipe recipe : recipes) {
+			IntSet catalysts = null;
+			if (recipe.catalysts != null) {
+				catalysts = new IntSet(recipe.catalysts.size());
+				for (ItemStack catalyst : recipe.catalysts) {
+					catalysts.add(ItemStackKey.of(catalyst));
+				}
+			}
+			long key = getKey(getFluid(recipe.inputA), getFluid(recipe.inputB));
+			long reversedKey = getKey(getFluid(recipe.inputB), getFluid(recipe.inputA));
+			table.add(key, new CompiledRecipe(recipe, catalysts));
+			if (reversedKey != key) {
+				table.add(reversedKey, new CompiledRecipe(recipe.reverseInputs(), catalysts));
+			}
+		}
+		compiled = table;
+		generation++;
 	}
-	
-	private static FluidReactorRecipe getRecipe(Fluid inputA, Fluid inputB) {
-		return getRecipe(UnorderedPair.of(inputA, inputB));
+
+	public static int getGeneration() {
+		return generation;
 	}
-	
-	public static FluidReactorRecipe getRecipeForResources(FluidStack inputA, FluidStack inputB, ItemStack catalyst, int energy) {
-		FluidReactorRecipe recipe = getRecipe(inputA.getFluid(), inputB.getFluid());
-		if (recipe == null) {
-			return null;
+
+	private static Fluid getFluid(FluidStack stack) {
+		return stack == null ? null : stack.getFluid();
+	}
+
+	private static int getFluidKey(Fluid fluid) {
+		return fluid == null ? 0 : fluid.getID() + 1;
+	}
+
+	private static long getKey(Fluid inputA, Fluid inputB) {
+		return (long)getFluidKey(inputA) << 32 | getFluidKey(inputB);
+	}
+
+	/*
+	 * The recipe for the given fluids, with its inputs in the same order, if the catalyst
+	 * is acceptable; the amounts and energy are not checked (see canReact()).
+	 */
+	public static FluidReactorRecipe getRecipe(Fluid inputA, Fluid inputB, ItemStack catalyst) {
+		if (compiled == null) {
+			compile();
 		}
-		if (energy < recipe.energy) {
+		CompiledRecipe entry = (CompiledRecipe)compiled.getValueByKey(getKey(inputA, inputB));
+		if (entry == null) {
 			return null;
 		}
-		if (recipe.catalysts != null) {
-			boolean catalyzed = false;
-			for (ItemStack c : recipe.catalysts) {
-				if (c.isItemEqual(catalyst)) {
-					catalyzed = true;
-				}
-			}
-			if (!catalyzed) {
-				return null;
-			}
-		}
-		if (inputB.containsFluid(recipe.inputA)) {
-			recipe = recipe.reverseInputs();
+		if (entry.catalysts != null && (catalyst == null || !entry.catalysts.contains(ItemStackKey.of(catalyst)))) {
+			return null;
 		}
-		if (inputA.amount < recipe.inputA.amount || inputB.amount < recipe.inputB.amount) {
+		return entry.recipe;
+	}
+
+	public static boolean canReact(FluidReactorRecipe recipe, FluidStack inputA, FluidStack inputB, int energy) {
+		return energy >= recipe.energy && hasEnough(inputA, recipe.inputA) && hasEnough(inputB, recipe.inputB);
+	}
+
+	private static boolean hasEnough(FluidStack available, FluidStack required) {
+		return required == null || (available != null && available.amount >= required.amount);
+	}
+
+	public static FluidReactorRecipe getRecipeForResources(FluidStack inputA, FluidStack inputB, ItemStack catalyst, int energy) {
+		FluidReactorRecipe recipe = getRecipe(getFluid(inputA), getFluid(inputB), catalyst);
+		if (recipe == null || !canReact(recipe, inputA, inputB, energy)) {
 			return null;
 		}
-		
 		return recipe;
 	}
 }
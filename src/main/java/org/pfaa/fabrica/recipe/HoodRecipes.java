@@ -1,47 +1,65 @@
 package org.pfaa.fabrica.recipe;
 
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
-import com.google.common.collect.Maps;
+import org.pfaa.core.item.ItemStackKey;
+import org.pfaa.core.util.IntObjectMap;
 
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraftforge.fluids.FluidStack;
 
+/*
+ * Gas emitted by roasting one of an item, indexed by packed item ID and damage.
+ * 
+ * The registered stacks are never handed out for modification: getOutput() returns a new
+ * stack, while getEmission() returns the shared one, which must only be read. As item IDs
+ * depend on the world, the index is compiled again when the server has loaded its worlds.
+ */
 public class HoodRecipes {
 	
-	private static Map<ItemStackKey, FluidStack> recipes = Maps.newHashMap();
+	private static final List<Recipe> recipes = new ArrayList<Recipe>();
 	
-	private static class ItemStackKey {
-		private Item item;
-		private int damage;
-		public ItemStackKey(ItemStack itemStack) {
-			this.item = itemStack.getItem();
-			this.damage = itemStack.getItemDamage();
-		}
-		public boolean equals(Object other) {
-			if (other instanceof ItemStackKey) {
-				ItemStackKey otherKey = (ItemStackKey)other;
-				return otherKey.item == this.item && otherKey.damage == this.damage;
-			}
-			return false;
-		}
-		public int hashCode() {
-			return (this.item.hashCode() * 31) + this.damage;
+	private static IntObjectMap<FluidStack> emissions;
+	
+	private static class Recipe {
+		final Item item;
+		final int damage;
+		final FluidStack output;
+		
+		Recipe(Item item, int damage, FluidStack output) {
+			this.item = item;
+			this.damage = damage;
+			this.output = output;
 		}
 	}
 	
 	public static void addRecipe(ItemStack input, FluidStack output) {
 		FluidStack outputCopy = output.copy();
 		outputCopy.amount /= input.stackSize;
-		recipes.put(new ItemStackKey(input), outputCopy);
+		recipes.add(new Recipe(input.getItem(), input.getItemDamage(), outputCopy));
+		emissions = null;
 	}
 	
-	public static FluidStack getOutput(ItemStack input) {
-		FluidStack output = recipes.get(new ItemStackKey(input));
-		if (output != null) {
-			output.amount *= input.stackSize;
+	public static void compile() {
+		IntObjectMap<FluidStack> index = new IntObjectMap<FluidStack>(recipes.size());
+		for (Recipe recipe : recipes) {
+			index.put(ItemStackKey.of(recipe.item, recipe.damage), recipe.output);
+		}
+		emissions = index;
+	}
+	
+	/* Gas emitted by one of the item; shared, so do not modify it */
+	public static FluidStack getEmission(Item item, int damage) {
+		if (emissions == null) {
+			compile();
 		}
-		return output;
+		return emissions.get(ItemStackKey.of(item, damage));
+	}
+	
+	public static FluidStack getOutput(ItemStack input) {
+		FluidStack emission = getEmission(input.getItem(), input.getItemDamage());
+		return emission == null ? null : new FluidStack(emission, emission.amount * input.stackSize);
 	}
 }
@@ -2,11 +2,16 @@ package org.pfaa.fabrica.registration;
 
 import org.pfaa.core.registration.Registrant;
 import org.pfaa.fabrica.integration.ChemicaIntegration;
+import org.pfaa.fabrica.network.FabricaNetwork;
+
+import net.minecraft.world.World;
 
 public class CommonRegistrant implements Registrant {
 
 	@Override
 	public void preregister() {
+		HandlerRegistration.init();
+		FabricaNetwork.init();
 		BlockRegistration.init();
 		ItemRegistration.init();
 		OreRegistration.init();
@@ -27,5 +32,9 @@ public class CommonRegistrant implements Registrant {
 	public int getFluidReactorRendererId() {
 		return 0;
 	}
+	
+	public World getClientWorld() {
+		return null;
+	}
 
 }
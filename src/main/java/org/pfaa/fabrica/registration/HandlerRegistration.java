@@ -0,0 +1,19 @@
+package org.pfaa.fabrica.registration;
+
+import org.pfaa.fabrica.entity.FluidReactorScheduler;
+import org.pfaa.fabrica.entity.HoodNetworkManager;
+import org.pfaa.fabrica.entity.SyncScheduler;
+
+import cpw.mods.fml.common.FMLCommonHandler;
+import net.minecraftforge.common.MinecraftForge;
+
+public class HandlerRegistration {
+	public static void init() {
+		MinecraftForge.EVENT_BUS.register(FluidReactorScheduler.INSTANCE);
+		FMLCommonHandler.instance().bus().register(FluidReactorScheduler.INSTANCE);
+		MinecraftForge.EVENT_BUS.register(HoodNetworkManager.INSTANCE);
+		FMLCommonHandler.instance().bus().register(HoodNetworkManager.INSTANCE);
+		MinecraftForge.EVENT_BUS.register(SyncScheduler.INSTANCE);
+		FMLCommonHandler.instance().bus().register(SyncScheduler.INSTANCE);
+	}
+}
@@ -8,6 +8,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 
 import org.apache.logging.log4j.Logger;
+import org.pfaa.geologica.block.OreBlockUtils;
 import org.pfaa.geologica.registration.CommonRegistrant;
 
 import com.google.common.io.ByteStreams;
@@ -18,6 +19,7 @@ import cpw.mods.fml.common.Mod.EventHandler;
 import cpw.mods.fml.common.Mod.Instance;
 import cpw.mods.fml.common.SidedProxy;
 import cpw.mods.fml.common.event.FMLInitializationEvent;
+import cpw.mods.fml.common.event.FMLModIdMappingEvent;
 import cpw.mods.fml.common.event.FMLPostInitializationEvent;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
 
@@ -65,6 +67,11 @@ public class Geologica {
 		configuration.save();
 	}
 	
+	@EventHandler
+	public void remap(FMLModIdMappingEvent event) {
+		OreBlockUtils.onBlockIdsRemapped();
+	}
+	
 	private void exportCOGConfig() {
 		String filename = "CustomOreGen_Geologica.xml";
 		String destPath = Loader.instance().getConfigDir() + File.separator + "CustomOreGen" + 
@@ -6,17 +6,30 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.TreeMap;
 
 import org.pfaa.chemica.model.IndustrialMaterial;
 import org.pfaa.core.item.ChanceStack;
+import org.pfaa.core.util.AliasTable;
 import org.pfaa.geologica.GeoMaterial;
 
 import net.minecraft.item.ItemStack;
 
+/*
+ * Drops are compiled (see compile()) into an array indexed by GeoMaterial ordinal. For each
+ * drop and fortune level up to MAX_COMPILED_FORTUNE, the distribution of the stack size,
+ * from the bonus and fortune rolls together, is worked out in advance and sampled with an
+ * AliasTable. Stacks are only copied from the registered prototypes when they are dropped.
+ */
 public class ChanceDropRegistry {
 	
+	/* Higher levels, only reachable through other mods, are rolled as they come */
+	private static final int MAX_COMPILED_FORTUNE = 3;
+	
 	private Map<IndustrialMaterial, ChanceDropSet> dropsByMaterial = new HashMap<IndustrialMaterial, ChanceDropSet>();
 	
+	private CompiledDrop[][] compiled;
+	
 	private static final ChanceDropRegistry INSTANCE = new ChanceDropRegistry();
 	
 	private ChanceDropRegistry() {
@@ -34,15 +47,40 @@ public class ChanceDropRegistry {
 			dropsByMaterial.put(material, drops);
 		}
 		drops.addDrop(new ChanceDrop(item, bonus, chance, fortuneMultiplies));
+		this.compiled = null;
 	}
 	
 	public void addChanceDrop(GeoMaterial material, ItemStack item, int bonus) {
 		this.addChanceDrop(material, item, bonus, 1.0F, true);
 	}
 	
+	public void compile() {
+		CompiledDrop[][] table = new CompiledDrop[GeoMaterial.values().length][];
+		for (Map.Entry<IndustrialMaterial, ChanceDropSet> entry : this.dropsByMaterial.entrySet()) {
+			if (entry.getKey() instanceof GeoMaterial) {
+				table[((GeoMaterial)entry.getKey()).ordinal()] = entry.getValue().compile();
+			}
+		}
+		this.compiled = table;
+	}
+	
 	public ArrayList<ItemStack> getDrops(GeoMaterial material, Random rand, int fortune) {
-		ChanceDropSet drops = this.dropsByMaterial.get(material);
-		return drops != null ? drops.getDrops(rand, fortune) : null;
+		if (this.compiled == null) {
+			this.compile();
+		}
+		CompiledDrop[] drops = this.compiled[material.ordinal()];
+		if (drops == null) {
+			return null;
+		}
+		ArrayList<ItemStack> items = new ArrayList<ItemStack>(drops.length);
+		for (CompiledDrop drop : drops) {
+			if (drop.chance >= 1 || rand.nextFloat() < drop.chance) {
+				ItemStack itemStack = drop.prototype.copy();
+				itemStack.stackSize = drop.getStackSize(rand, fortune);
+				items.add(itemStack);
+			}
+		}
+		return items;
 	}
 	
 	private static class ChanceDrop extends ChanceStack {
@@ -54,6 +92,66 @@ public class ChanceDropRegistry {
 			this.bonus = bonus;
 			this.fortuneMultiplies = fortuneMultiplies;
 		}
+		
+		public int rollStackSize(Random rand, int fortune) {
+			int stackSize = this.itemStack.stackSize + rand.nextInt(this.bonus + 1);
+			if (this.fortuneMultiplies) {
+				stackSize *= (Math.max(rand.nextInt(fortune + 2) - 1, 0) + 1);
+			} else {
+				stackSize += rand.nextInt(fortune + 1);
+			}
+			return stackSize;
+		}
+		
+		/* Number of the equally likely bonus and fortune rolls giving each stack size */
+		public TreeMap<Integer, Integer> getStackSizeCounts(int fortune) {
+			TreeMap<Integer, Integer> counts = new TreeMap<Integer, Integer>();
+			for (int i = 0; i <= this.bonus; i++) {
+				int stackSize = this.itemStack.stackSize + i;
+				int fortuneRolls = this.fortuneMultiplies ? fortune + 2 : fortune + 1;
+				for (int j = 0; j < fortuneRolls; j++) {
+					int size = this.fortuneMultiplies ? stackSize * (Math.max(j - 1, 0) + 1) : stackSize + j;
+					Integer count = counts.get(size);
+					counts.put(size, count == null ? 1 : count + 1);
+				}
+			}
+			return counts;
+		}
+	}
+	
+	private static class CompiledDrop {
+		final ChanceDrop drop;
+		final ItemStack prototype;
+		final float chance;
+		/* by fortune level */
+		final int[][] stackSizes = new int[MAX_COMPILED_FORTUNE + 1][];
+		final AliasTable[] stackSizeTables = new AliasTable[MAX_COMPILED_FORTUNE + 1];
+		
+		CompiledDrop(ChanceDrop drop) {
+			this.drop = drop;
+			this.prototype = drop.itemStack;
+			this.chance = drop.chance;
+			for (int fortune = 0; fortune <= MAX_COMPILED_FORTUNE; fortune++) {
+				TreeMap<Integer, Integer> counts = drop.getStackSizeCounts(fortune);
+				int[] sizes = new int[counts.size()];
+				double[] weights = new double[counts.size()];
+				int i = 0;
+				for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+					sizes[i] = entry.getKey();
+					weights[i] = entry.getValue();
+					i++;
+				}
+				this.stackSizes[fortune] = sizes;
+				this.stackSizeTables[fortune] = new AliasTable(weights);
+			}
+		}
+		
+		int getStackSize(Random rand, int fortune) {
+			if (fortune < 0 || fortune > MAX_COMPILED_FORTUNE) {
+				return this.drop.rollStackSize(rand, fortune);
+			}
+			return this.stackSizes[fortune][this.stackSizeTables[fortune].sample(rand)];
+		}
 	}
 
 	private static class ChanceDropSet {
@@ -67,21 +165,12 @@ public class ChanceDropRegistry {
 			this.drops.add(drop);
 		}
 		
-		public ArrayList<ItemStack> getDrops(Random rand, int fortune) {
-			ArrayList<ItemStack> items = new ArrayList<ItemStack>();
-			for (ChanceDrop drop : this.drops) {
-				if (rand.nextFloat() < drop.chance) {
-					ItemStack itemStack = drop.itemStack.copy();
-					itemStack.stackSize += rand.nextInt(drop.bonus + 1);
-					if (drop.fortuneMultiplies) {
-						itemStack.stackSize *= (Math.max(rand.nextInt(fortune + 2) - 1, 0) + 1);
-					} else {
-						itemStack.stackSize += rand.nextInt(fortune + 1);
-					}
-					items.add(itemStack);
-				}
+		public CompiledDrop[] compile() {
+			CompiledDrop[] compiled = new CompiledDrop[this.drops.size()];
+			for (int i = 0; i < compiled.length; i++) {
+				compiled[i] = new CompiledDrop(this.drops.get(i));
 			}
-			return items;
+			return compiled;
 		}
 	}
 
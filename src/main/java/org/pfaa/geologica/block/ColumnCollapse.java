@@ -0,0 +1,90 @@
+package org.pfaa.geologica.block;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockFalling;
+import net.minecraft.entity.item.EntityFallingBlock;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.World;
+
+/*
+ * Collapses a whole column of loose blocks at once, when its bottom block loses support.
+ *
+ * Short columns fall as entities, as vanilla gravel does, but all at once, rather than
+ * cascading through a scheduled tick per block. Taller columns, and any column when falling
+ * entities are not possible, are moved directly to where they land in a single pass, without
+ * block updates along the way. Afterwards, the neighbours of every cell that ended up
+ * different are notified once, as they would have been by blocks falling one at a time.
+ */
+public class ColumnCollapse {
+	private static final int MAX_FALLING_ENTITIES = 4;
+	private static final int CHUNK_CHECK_RADIUS = 32;
+
+	public static boolean canFallBelow(World world, int x, int y, int z) {
+		return y > 0 && BlockFalling.func_149831_e(world, x, y - 1, z);
+	}
+
+	public static void collapse(World world, int x, int y, int z) {
+		if (!canFallBelow(world, x, y, z)) {
+			return;
+		}
+		int top = y;
+		while (top + 1 < world.getHeight() && world.getBlock(x, top + 1, z) instanceof LooseGeoBlock) {
+			top++;
+		}
+		int height = top - y + 1;
+		int r = CHUNK_CHECK_RADIUS;
+		if (height <= MAX_FALLING_ENTITIES && !BlockFalling.fallInstantly &&
+				world.checkChunksExist(x - r, y - r, z - r, x + r, y + r, z + r)) {
+			spawnFallingBlocks(world, x, y, z, height);
+		} else {
+			moveColumn(world, x, y, z, height);
+		}
+	}
+
+	private static void spawnFallingBlocks(World world, int x, int y, int z, int height) {
+		for (int i = 0; i < height; i++) {
+			EntityFallingBlock falling = new EntityFallingBlock(world, x + 0.5D, y + i + 0.5D, z + 0.5D,
+					world.getBlock(x, y + i, z), world.getBlockMetadata(x, y + i, z));
+			world.spawnEntityInWorld(falling);
+		}
+	}
+
+	private static void moveColumn(World world, int x, int y, int z, int height) {
+		int floor = y;
+		while (floor > 0 && BlockFalling.func_149831_e(world, x, floor - 1, z)) {
+			floor--;
+		}
+		int top = y + height - 1;
+		/* everything from where the column lands to where it was, so we can tell what changed */
+		int span = top - floor + 1;
+		Block[] oldBlocks = new Block[span];
+		int[] oldMetas = new int[span];
+		for (int i = 0; i < span; i++) {
+			oldBlocks[i] = world.getBlock(x, floor + i, z);
+			oldMetas[i] = world.getBlockMetadata(x, floor + i, z);
+		}
+		Block[] blocks = new Block[height];
+		int[] metas = new int[height];
+		for (int i = 0; i < height; i++) {
+			blocks[i] = oldBlocks[y - floor + i];
+			metas[i] = oldMetas[y - floor + i];
+		}
+		for (int yi = Math.max(floor + height, y); yi <= top; yi++) {
+			world.setBlock(x, yi, z, Blocks.air, 0, 2);
+		}
+		// like the vanilla instant fall, anything landing at the bottom of the world is lost
+		for (int i = 0; i < height; i++) {
+			if (floor + i > 0) {
+				world.setBlock(x, floor + i, z, blocks[i], metas[i], 2);
+			} else {
+				world.setBlock(x, floor + i, z, Blocks.air, 0, 2);
+			}
+		}
+		for (int i = 0; i < span; i++) {
+			Block block = world.getBlock(x, floor + i, z);
+			if (block != oldBlocks[i] || world.getBlockMetadata(x, floor + i, z) != oldMetas[i]) {
+				world.notifyBlocksOfNeighborChange(x, floor + i, z, block);
+			}
+		}
+	}
+}
@@ -2,7 +2,7 @@ package org.pfaa.geologica.block;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
@@ -35,7 +35,7 @@ public abstract class GeoBlock extends IndustrialBlock implements GeoBlockAccess
 	private Strength strength;
 	private Class<? extends IndustrialMaterial> composition;
 
-	private static Map<GeoMaterial, BlockWithMeta<GeoBlock>> materialToNativeBlock = new HashMap<GeoMaterial, BlockWithMeta<GeoBlock>>();
+	private static Map<GeoMaterial, BlockWithMeta<GeoBlock>> materialToNativeBlock = new EnumMap<GeoMaterial, BlockWithMeta<GeoBlock>>(GeoMaterial.class);
 	
 	public GeoBlock(Strength strength, Class<? extends IndustrialMaterial> composition, Material material, 
 			boolean defaultRendererEnabled) 
@@ -230,6 +230,22 @@ public abstract class GeoBlock extends IndustrialBlock implements GeoBlockAccess
 		return null;
 	}
 	
+	/*
+	 * The baked icon only has the default host, so an adjacent host rock needs both passes,
+	 * unless it looks the same as the default host (icons are shared by name).
+	 */
+	@Override
+	@SideOnly(Side.CLIENT)
+	protected boolean canUseBakedIcon(IBlockAccess world, int x, int y, int z) {
+		int meta = world.getBlockMetadata(x, y, z);
+		IndustrialMaterial host = this.getGeoMaterial(meta).getHost();
+		if (host == null) {
+			return true;
+		}
+		IIcon hostIcon = this.getHostIcon(world, x, y, z);
+		return hostIcon == null || hostIcon == this.getUnderlayIcon(0, meta);
+	}
+	
 	@Override
 	public boolean useMultipassRendering() {
 		return this.needsHost();
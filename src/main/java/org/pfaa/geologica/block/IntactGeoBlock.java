@@ -29,40 +29,88 @@ public class IntactGeoBlock extends GeoBlock {
 		super(strength, composition, material, false);
 	}
 
-	@Override
-	public ArrayList<ItemStack> getDrops(World world, int x, int y, int z, int metadata, int fortune) {
-		GeoMaterial material = this.getGeoMaterial(metadata);
+	/*
+	 * Resolved on first use, by meta, when the ore dictionary is complete: the lump or clump
+	 * dropped by clay and ground materials, and by their hosts, and the item dropped otherwise.
+	 */
+	private ItemStack[] formDrops;
+	private ItemStack[] hostFormDrops;
+	private boolean[] fortuneDropsHost;
+	private Item[] itemsDropped;
+	
+	private void resolveDrops() {
+		int count = this.getGeoMaterials().size();
+		ItemStack[] formDrops = new ItemStack[count];
+		ItemStack[] hostFormDrops = new ItemStack[count];
+		boolean[] fortuneDropsHost = new boolean[count];
+		Item[] itemsDropped = new Item[count];
+		for (int meta = 0; meta < count; meta++) {
+			GeoMaterial material = this.getGeoMaterial(meta);
+			Form form = getDropForm(material);
+			if (form != null) {
+				GeoMaterial host = (GeoMaterial)material.getHost();
+				formDrops[meta] = MaterialStack.of(material, form).getBestItemStack();
+				fortuneDropsHost[meta] = material.getComposition() instanceof Ore && host != null;
+				if (fortuneDropsHost[meta]) {
+					hostFormDrops[meta] = MaterialStack.of(host, form).getBestItemStack();
+				}
+			}
+			itemsDropped[meta] = this.resolveItemDropped(material);
+		}
+		this.hostFormDrops = hostFormDrops;
+		this.fortuneDropsHost = fortuneDropsHost;
+		this.itemsDropped = itemsDropped;
+		this.formDrops = formDrops;
+	}
+	
+	private static Form getDropForm(GeoMaterial material) {
 		if (material.getBlockMaterial() == Material.clay) {
-			return this.getDrops(material, Forms.LUMP, fortune);
+			return Forms.LUMP;
 		} else if (material.getBlockMaterial() == Material.ground) {
-			return this.getDrops(material, Forms.CLUMP, fortune);
+			return Forms.CLUMP;
+		}
+		return null;
+	}
+	
+	@Override
+	public ArrayList<ItemStack> getDrops(World world, int x, int y, int z, int metadata, int fortune) {
+		if (this.formDrops == null) {
+			this.resolveDrops();
+		}
+		if (getDropForm(this.getGeoMaterial(metadata)) != null) {
+			return this.getFormDrops(metadata, fortune);
 		}
 		return super.getDrops(world, x, y, z, metadata, fortune);
 	}
 	
-	private ArrayList<ItemStack> getDrops(GeoMaterial material, Form form, int fortune) {
-		GeoMaterial host = (GeoMaterial)material.getHost();
-		int numOreDrops = material.getComposition() instanceof Ore && host != null ? fortune + 1 : 4;
-		ArrayList<ItemStack> drops = new ArrayList<ItemStack>();
+	/* Fortune raises the share of the four drops that are ore, rather than host */
+	private ArrayList<ItemStack> getFormDrops(int meta, int fortune) {
+		int numOreDrops = this.fortuneDropsHost[meta] ? fortune + 1 : 4;
+		ArrayList<ItemStack> drops = new ArrayList<ItemStack>(4);
 		for (int i = 1; i <= 4; i++) {
-			if (i > numOreDrops) {
-				material = host;
+			ItemStack drop = i > numOreDrops ? this.hostFormDrops[meta] : this.formDrops[meta];
+			if (drop != null) {
+				drops.add(drop.copy());
 			}
-			drops.add(MaterialStack.of(material, form).getBestItemStack()); 
 		}
 		return drops;
 	}
 
 	@Override
 	public Item getItemDropped(int meta, Random random, int par3) {
-		Item dropped = super.getItemDropped(meta, random, par3);
-		GeoMaterial material = getGeoMaterial(meta);
+		if (this.itemsDropped == null) {
+			this.resolveDrops();
+		}
+		return this.itemsDropped[meta];
+	}
+	
+	private Item resolveItemDropped(GeoMaterial material) {
 		GeoBlock broken = this.getBrokenRockBlock();
 		if (broken != null && material.getStrength() != Strength.VERY_STRONG) 
 		{
-			dropped = Item.getItemFromBlock(broken);
+			return Item.getItemFromBlock(broken);
 		}
-		return dropped;
+		return Item.getItemFromBlock(this);
 	}
 	
 	@Override
@@ -11,10 +11,8 @@ import org.pfaa.chemica.processing.Form.Forms;
 import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
 import net.minecraft.block.Block;
-import net.minecraft.block.BlockFalling;
 import net.minecraft.block.material.Material;
 import net.minecraft.client.renderer.texture.IIconRegister;
-import net.minecraft.entity.item.EntityFallingBlock;
 import net.minecraft.util.IIcon;
 import net.minecraft.world.World;
 
@@ -24,16 +22,21 @@ public class LooseGeoBlock extends GeoBlock {
 		super(strength, composition, material, material == Material.rock);
 	}
 
+	/* Only unsupported blocks are scheduled; the whole column above falls with them */
 	@Override
     public void onBlockAdded(World par1World, int par2, int par3, int par4)
     {
-        par1World.scheduleBlockUpdate(par2, par3, par4, this, this.tickRate(null));
+		if (ColumnCollapse.canFallBelow(par1World, par2, par3, par4)) {
+			par1World.scheduleBlockUpdate(par2, par3, par4, this, this.tickRate(null));
+		}
     }
 
 	@Override
     public void onNeighborBlockChange(World par1World, int par2, int par3, int par4, Block par5)
     {
-        par1World.scheduleBlockUpdate(par2, par3, par4, this, this.tickRate(null));
+		if (ColumnCollapse.canFallBelow(par1World, par2, par3, par4)) {
+			par1World.scheduleBlockUpdate(par2, par3, par4, this, this.tickRate(null));
+		}
     }
 
 	@Override
@@ -47,41 +50,7 @@ public class LooseGeoBlock extends GeoBlock {
     {
         if (!par1World.isRemote)
         {
-            this.tryToFall(par1World, par2, par3, par4);
-        }
-    }
-
-    /**
-     * If there is space to fall below will start this block falling
-     */
-    private void tryToFall(World par1World, int par2, int par3, int par4)
-    {
-        if (BlockFalling.func_149831_e(par1World, par2, par3 - 1, par4) && par3 >= 0)
-        {
-            byte var8 = 32;
-
-            if (!BlockFalling.fallInstantly && par1World.checkChunksExist(par2 - var8, par3 - var8, par4 - var8, par2 + var8, par3 + var8, par4 + var8))
-            {
-                if (!par1World.isRemote)
-                {
-                	EntityFallingBlock var9 = new EntityFallingBlock(par1World, (double)((float)par2 + 0.5F), (double)((float)par3 + 0.5F), (double)((float)par4 + 0.5F), this, par1World.getBlockMetadata(par2, par3, par4));
-                    par1World.spawnEntityInWorld(var9);
-                }
-            }
-            else
-            {
-                par1World.setBlockToAir(par2, par3, par4);
-
-                while (BlockFalling.func_149831_e(par1World, par2, par3 - 1, par4) && par3 > 0)
-                {
-                    --par3;
-                }
-
-                if (par3 > 0)
-                {
-                    par1World.setBlock(par2, par3, par4, this);
-                }
-            }
+            ColumnCollapse.collapse(par1World, par2, par3, par4);
         }
     }
     
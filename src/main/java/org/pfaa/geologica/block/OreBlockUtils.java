@@ -1,14 +1,16 @@
 package org.pfaa.geologica.block;
 
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.pfaa.core.block.BlockWithMeta;
+import org.pfaa.core.block.BlockStateKey;
+import org.pfaa.core.util.IntSet;
+import org.pfaa.geologica.client.render.HostBlockCache;
+
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
 
-import net.minecraft.block.Block;
 import net.minecraft.block.material.Material;
 import net.minecraft.init.Blocks;
 import net.minecraft.item.Item;
@@ -19,10 +21,14 @@ import net.minecraft.world.IBlockAccess;
 import net.minecraftforge.oredict.OreDictionary;
 
 public class OreBlockUtils {
-	private static Map<String,Set<BlockWithMeta<?>>> oreCache = new HashMap<String,Set<BlockWithMeta<?>>>();
+	/*
+	 * Keyed by BlockStateKey, so these must be rebuilt whenever block IDs are remapped.
+	 * Filled while meshing, possibly on several threads; sets are complete before they are shared.
+	 */
+	private static Map<String,IntSet> oreCache = new ConcurrentHashMap<String,IntSet>();
 	
-	private static Set<BlockWithMeta<?>> getBlocksForOre(String key) {
-		Set<BlockWithMeta<?>> set = oreCache.get(key);
+	private static IntSet getBlocksForOre(String key) {
+		IntSet set = oreCache.get(key);
 		if (set == null) {
 			set = getBlocksForNewOre(key);
 			oreCache.put(key, set);
@@ -30,34 +36,39 @@ public class OreBlockUtils {
 		return set;
 	}
 	
-	private static Set<BlockWithMeta<?>> getBlocksForNewOre(String key) {
-		Set<BlockWithMeta<?>> set = new HashSet<BlockWithMeta<?>>();
+	private static IntSet getBlocksForNewOre(String key) {
+		IntSet set = new IntSet();
 		List<ItemStack> ores = OreDictionary.getOres(key);
 		for (ItemStack ore : ores) {
 			Item item = ore.getItem();
-			if (item instanceof ItemBlock) {
-				set.add(new BlockWithMeta<Block>(((ItemBlock) item).field_150939_a, ore.getItemDamage()));
+			int meta = ore.getItemDamage();
+			// wildcards never matched a world meta before, and still do not
+			if (item instanceof ItemBlock && meta >= 0 && meta < 16) {
+				set.add(BlockStateKey.of(((ItemBlock) item).field_150939_a, meta));
 			}
 		}
 		if (key == "stone") {
-			set.add(new BlockWithMeta<Block>(Blocks.sandstone, 0));
+			set.add(BlockStateKey.of(Blocks.sandstone, 0));
 		}
 		return set;
 	}
+	
+	public static void onBlockIdsRemapped() {
+		oreCache.clear();
+	}
 
-	private static ItemStack getAdjacentBlock(IBlockAccess world, int x, int y, int z, Set<BlockWithMeta<?>> allowed) {
+	private static int getAdjacentBlock(IBlockAccess world, int x, int y, int z, IntSet allowed) {
 		for (int ix = x - 1; ix <= x + 1; ix++) {
 			for (int iy = y - 1; iy <= y + 1; iy++) {
 				for (int iz = z - 1; iz <= z + 1; iz++) {
-					Block block = world.getBlock(ix, iy, iz);
-					int meta = world.getBlockMetadata(ix, iy, iz);
-					if (allowed.contains(new BlockWithMeta<Block>(block, meta))) {
-						return new ItemStack(block, 1, meta);
+					int key = BlockStateKey.of(world, ix, iy, iz);
+					if (allowed.contains(key)) {
+						return key;
 					}
 				}
 			}
 		}
-		return null;
+		return BlockStateKey.NONE;
 	}
 	
 	private static String getHostOreForMaterial(Material material) {
@@ -69,25 +80,33 @@ public class OreBlockUtils {
 		return null;
 	}
 	
-	private static Set<BlockWithMeta<?>> getHostBlocks(Block block) {
-		return getBlocksForOre(getHostOreForMaterial(block.getMaterial()));	
+	private static int getHostKey(IBlockAccess world, int x, int y, int z) {
+		String key = getHostOreForMaterial(world.getBlock(x, y, z).getMaterial());
+		if (key == null) {
+			return BlockStateKey.NONE;
+		}
+		return getAdjacentBlock(world, x, y, z, getBlocksForOre(key));
 	}
 	
 	public static ItemStack getHost(IBlockAccess world, int x, int y, int z) {
-		Block block = world.getBlock(x, y, z);
-		Set<BlockWithMeta<?>> hosts = getHostBlocks(block);
-		if (hosts != null) {
-			return getAdjacentBlock(world, x, y, z, hosts);
-		} else {
+		int host = getHostKey(world, x, y, z);
+		if (host == BlockStateKey.NONE) {
 			return null;
 		}
+		return new ItemStack(BlockStateKey.getBlock(host), 1, BlockStateKey.getMeta(host));
 	}
 	
+	/* Called for every face of every ore while meshing, so resolved hosts are cached */
+	@SideOnly(Side.CLIENT)
 	public static IIcon getHostIcon(IBlockAccess world, int x, int y, int z) {
-		ItemStack host = getHost(world, x, y, z);
-		if (host == null)
+		int host = HostBlockCache.INSTANCE.get(x, y, z);
+		if (host == HostBlockCache.UNKNOWN) {
+			host = getHostKey(world, x, y, z);
+			HostBlockCache.INSTANCE.put(x, y, z, host);
+		}
+		if (host == BlockStateKey.NONE) {
 			return null;
-		Block block = ((ItemBlock)host.getItem()).field_150939_a;
-		return block.getIcon(0, host.getItemDamage());
+		}
+		return BlockStateKey.getBlock(host).getIcon(0, BlockStateKey.getMeta(host));
 	}
 }
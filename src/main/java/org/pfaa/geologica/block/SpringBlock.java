@@ -6,13 +6,13 @@ import java.util.Random;
 import org.pfaa.chemica.ChemicaBlocks;
 import org.pfaa.core.block.CompositeBlockAccessors;
 import org.pfaa.geologica.GeologicaBlocks;
+import org.pfaa.geologica.fluid.SpringManager;
 
 import com.google.common.base.CaseFormat;
 
 import cpw.mods.fml.relauncher.Side;
 import cpw.mods.fml.relauncher.SideOnly;
 import net.minecraft.block.Block;
-import net.minecraft.block.BlockFalling;
 import net.minecraft.block.material.Material;
 import net.minecraft.client.renderer.texture.IIconRegister;
 import net.minecraft.creativetab.CreativeTabs;
@@ -112,50 +112,34 @@ public class SpringBlock extends Block implements CompositeBlockAccessors {
 		return meta;
 	}
 
+	/* 
+	 * The SpringManager does the actual work. Random ticks are only a fallback for 
+	 * springs that it does not yet know about, e.g., from worlds saved before it existed. 
+	 */
 	@Override
 	public void updateTick(World world, int x, int y, int z, Random random) {
-		assertSpring(world, x, y, z, random);
+		SpringManager.INSTANCE.register(world, x, y, z);
 	}
 
 	@Override
 	public void onBlockAdded(World world, int x, int y, int z) {
 		super.onBlockAdded(world, x, y, z);
-		int meta = world.getBlockMetadata(x, y, z);
-		world.scheduleBlockUpdate(x, y, z, this, this.getSpring(meta).getTickRate());
+		SpringManager.INSTANCE.register(world, x, y, z);
 	}
 
-	private Spring getSpring(int meta) {
+	@Override
+	public void breakBlock(World world, int x, int y, int z, Block block, int meta) {
+		super.breakBlock(world, x, y, z, block, meta);
+		SpringManager.INSTANCE.unregister(world, x, y, z);
+	}
+
+	public Spring getSpring(int meta) {
 		if (meta < 0 || meta >= this.springs.length) {
 			return Springs.WATER;
 		}
 		return this.springs[meta];
 	}
 
-	private void assertSpring(World world, int x, int y, int z, Random random) {
-		int meta = world.getBlockMetadata(x, y, z);
-		Spring spring = this.getSpring(meta);
-		world.scheduleBlockUpdate(x, y, z, this, spring.getTickRate());
-		if (spring.getChance() != -1 && random.nextInt(spring.getChance()) != 0) {
-			return;
-		}
-		Block fluid = spring.getFluidBlock();
-		int nextY;
-		for (nextY = y + 1; nextY < world.getActualHeight() && world.getBlock(x, nextY, z) == fluid; nextY++) { }
-		int curY = nextY - 1;
-		Block block = world.getBlock(x, nextY, z);
-		boolean seepable = nextY < world.getActualHeight() && 
-				(block.getMaterial() == Material.air || block instanceof BlockFalling);
-		boolean canSpring = seepable && 
-								(y == curY || 
-									(world.getBlock(x+1, curY, z).getMaterial().isSolid() &&
-									 world.getBlock(x-1, curY, z).getMaterial().isSolid() &&
-									 world.getBlock(x, curY, z+1).getMaterial().isSolid() &&
-									 world.getBlock(x, curY, z-1).getMaterial().isSolid()));
-		if (canSpring) {
-			world.setBlock(x, nextY, z, fluid);
-		}
-	}
-
 	// Prevents updates on chunk generation
 	@Override
 	public boolean func_149698_L() {
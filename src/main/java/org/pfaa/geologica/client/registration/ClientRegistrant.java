@@ -2,26 +2,43 @@ package org.pfaa.geologica.client.registration;
 
 import org.pfaa.core.block.CompositeBlockAccessors;
 import org.pfaa.core.client.render.CompositeBlockItemRenderer;
+import org.pfaa.core.client.render.TextureIndex;
 import org.pfaa.geologica.GeologicaBlocks;
 import org.pfaa.geologica.client.render.CompositeBlockRenderer;
 import org.pfaa.geologica.client.render.FallingCompositeBlockRenderer;
+import org.pfaa.geologica.client.render.HostBlockCache;
 import org.pfaa.geologica.registration.CommonRegistrant;
 
 import cpw.mods.fml.client.registry.RenderingRegistry;
 import net.minecraft.block.Block;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.IReloadableResourceManager;
 import net.minecraft.entity.item.EntityFallingBlock;
 import net.minecraft.item.Item;
 import net.minecraftforge.client.IItemRenderer;
 import net.minecraftforge.client.MinecraftForgeClient;
+import net.minecraftforge.common.MinecraftForge;
 
 public class ClientRegistrant extends CommonRegistrant {
 	
 	private CompositeBlockRenderer compositeBlockRenderer;
 	
+	@Override
+	public void preregister() {
+		super.preregister();
+		((IReloadableResourceManager)Minecraft.getMinecraft().getResourceManager())
+			.registerReloadListener(TextureIndex.INSTANCE);
+	}
+	
 	@Override
 	public void register() {
 		super.register();
 		registerRenderers();
+		registerHooks();
+	}
+
+	private void registerHooks() {
+		MinecraftForge.EVENT_BUS.register(HostBlockCache.INSTANCE);
 	}
 
 	private void registerRenderers() {
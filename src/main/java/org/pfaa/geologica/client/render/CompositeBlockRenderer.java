@@ -30,6 +30,11 @@ public class CompositeBlockRenderer implements ISimpleBlockRenderingHandler {
 	public boolean renderWorldBlock(IBlockAccess world, int x, int y, int z,
 			Block block, int modelId, RenderBlocks renderer) {
 		boolean flag = false;
+		if (block instanceof CompositeBlock && ((CompositeBlock)block).enableBakedIcon(world, x, y, z)) {
+			flag = this.renderWorldBlockPass(x, y, z, block, renderer);
+			((CompositeBlock)block).disableBakedIcon();
+			return flag;
+		}
 		CompositeBlockAccessors compositeBlock = (CompositeBlockAccessors)block;
 		compositeBlock.disableOverlay();
 		flag = this.renderWorldBlockPass(x, y, z, block, renderer);
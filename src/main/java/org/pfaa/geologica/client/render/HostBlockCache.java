@@ -0,0 +1,124 @@
+package org.pfaa.geologica.client.render;
+
+import org.pfaa.core.world.PackedBlockPos;
+import org.pfaa.core.world.WorldAccessAdapter;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.relauncher.Side;
+import cpw.mods.fml.relauncher.SideOnly;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+/*
+ * Remembers, per chunk section of the client world, the host block resolved for each ore
+ * position, so that re-meshing a section does not search the neighbourhood of every ore again.
+ *
+ * Hosts are stored as BlockStateKeys, or BlockStateKey.NONE. An entry is forgotten whenever
+ * a block within one block of it changes, and whole sections are dropped when their chunk
+ * is (re)loaded. The cache is cleared with each world, so block ID remapping is not an issue.
+ *
+ * Hosts are looked up and stored while meshing, which may happen off the client thread, so
+ * all access is synchronized.
+ */
+@SideOnly(Side.CLIENT)
+public class HostBlockCache {
+
+	public static final HostBlockCache INSTANCE = new HostBlockCache();
+
+	public static final int UNKNOWN = -2;
+
+	private static final int SECTION_SIZE = 16 * 16 * 16;
+
+	private LongHashMap sections = new LongHashMap();
+
+	private HostBlockCache() {
+	}
+
+	private static long getSectionKey(int x, int y, int z) {
+		return PackedBlockPos.pack(x >> 4, y >> 4, z >> 4);
+	}
+
+	private static int getIndex(int x, int y, int z) {
+		return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+	}
+
+	public synchronized int get(int x, int y, int z) {
+		int[] section = (int[])this.sections.getValueByKey(getSectionKey(x, y, z));
+		return section == null ? UNKNOWN : section[getIndex(x, y, z)] + UNKNOWN;
+	}
+
+	public synchronized void put(int x, int y, int z, int host) {
+		long key = getSectionKey(x, y, z);
+		int[] section = (int[])this.sections.getValueByKey(key);
+		if (section == null) {
+			section = new int[SECTION_SIZE];
+			this.sections.add(key, section);
+		}
+		section[getIndex(x, y, z)] = host - UNKNOWN;
+	}
+
+	private synchronized void invalidateAround(int x, int y, int z) {
+		for (int iy = y - 1; iy <= y + 1; iy++) {
+			for (int iz = z - 1; iz <= z + 1; iz++) {
+				for (int ix = x - 1; ix <= x + 1; ix++) {
+					int[] section = (int[])this.sections.getValueByKey(getSectionKey(ix, iy, iz));
+					if (section != null) {
+						section[getIndex(ix, iy, iz)] = 0;
+					}
+				}
+			}
+		}
+	}
+
+	private synchronized void invalidateRange(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+		for (int sy = (minY - 1) >> 4; sy <= (maxY + 1) >> 4; sy++) {
+			for (int sz = (minZ - 1) >> 4; sz <= (maxZ + 1) >> 4; sz++) {
+				for (int sx = (minX - 1) >> 4; sx <= (maxX + 1) >> 4; sx++) {
+					this.sections.remove(PackedBlockPos.pack(sx, sy, sz));
+				}
+			}
+		}
+	}
+
+	private synchronized void clear() {
+		this.sections = new LongHashMap();
+	}
+
+	@SubscribeEvent
+	public void onWorldLoad(WorldEvent.Load event) {
+		if (event.world.isRemote) {
+			this.clear();
+			event.world.addWorldAccess(new HostListener());
+		}
+	}
+
+	@SubscribeEvent
+	public void onChunkUnload(ChunkEvent.Unload event) {
+		Chunk chunk = event.getChunk();
+		if (chunk.worldObj.isRemote) {
+			int x = chunk.xPosition << 4, z = chunk.zPosition << 4;
+			this.invalidateRange(x, 0, z, x + 15, 255, z + 15);
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		if (event.world.isRemote) {
+			this.clear();
+		}
+	}
+
+	private class HostListener extends WorldAccessAdapter {
+		@Override
+		public void markBlockForUpdate(int x, int y, int z) {
+			invalidateAround(x, y, z);
+		}
+
+		@Override
+		public void markBlockRangeForRenderUpdate(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+			invalidateRange(minX, minY, minZ, maxX, maxY, maxZ);
+		}
+	}
+}
@@ -0,0 +1,304 @@
+package org.pfaa.geologica.fluid;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pfaa.core.world.PackedBlockPos;
+import org.pfaa.core.world.WorldAccessAdapter;
+import org.pfaa.geologica.block.SpringBlock;
+import org.pfaa.geologica.block.SpringBlock.Spring;
+
+import cpw.mods.fml.common.eventhandler.SubscribeEvent;
+import cpw.mods.fml.common.gameevent.TickEvent.Phase;
+import cpw.mods.fml.common.gameevent.TickEvent.WorldTickEvent;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockFalling;
+import net.minecraft.block.material.Material;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.LongHashMap;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+
+/*
+ * Runs the springs of each world, instead of every spring block scheduling its own ticks.
+ *
+ * Springs register when placed or generated, when their chunk is loaded (positions are saved
+ * with the chunk), and, for older worlds, on their first random tick. Each world tick, a bounded
+ * number of springs are visited round-robin, and those that are due flow as before. The top of
+ * the fluid column above each spring is cached, and forgotten whenever a block in that column changes.
+ */
+public class SpringManager {
+
+	public static final SpringManager INSTANCE = new SpringManager();
+
+	private static final int VISITS_PER_TICK = 64;
+	private static final int UNKNOWN = -1;
+	private static final String NBT_KEY = "geologica.springs";
+
+	private Map<World, WorldSprings> worlds = new HashMap<World, WorldSprings>();
+
+	private SpringManager() {
+	}
+
+	private static class SpringState {
+		final int x, y, z;
+		final Spring spring;
+		int topY = UNKNOWN;
+		long nextTick;
+		boolean removed;
+
+		SpringState(int x, int y, int z, Spring spring) {
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.spring = spring;
+		}
+	}
+
+	private static class WorldSprings {
+		final LongHashMap springs = new LongHashMap();
+		final LongHashMap chunks = new LongHashMap();
+		final LongHashMap unloading = new LongHashMap();
+		final List<SpringState> active = new ArrayList<SpringState>();
+		final Map<Spring, Long> output = new HashMap<Spring, Long>();
+		int cursor;
+		int lastTicked;
+	}
+
+	private WorldSprings getWorldSprings(World world) {
+		WorldSprings springs = this.worlds.get(world);
+		if (springs == null) {
+			springs = new WorldSprings();
+			this.worlds.put(world, springs);
+		}
+		return springs;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<SpringState> getChunkSprings(WorldSprings springs, int chunkX, int chunkZ, boolean create) {
+		long key = ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ);
+		List<SpringState> chunk = (List<SpringState>)springs.chunks.getValueByKey(key);
+		if (chunk == null && create) {
+			chunk = new ArrayList<SpringState>(1);
+			springs.chunks.add(key, chunk);
+		}
+		return chunk;
+	}
+
+	public void register(World world, int x, int y, int z) {
+		Block block = world.getBlock(x, y, z);
+		if (!world.isRemote && block instanceof SpringBlock) {
+			this.register(world, x, y, z, ((SpringBlock)block).getSpring(world.getBlockMetadata(x, y, z)));
+		}
+	}
+
+	private void register(World world, int x, int y, int z, Spring spring) {
+		WorldSprings springs = this.getWorldSprings(world);
+		long pos = PackedBlockPos.pack(x, y, z);
+		if (springs.springs.containsItem(pos)) {
+			return;
+		}
+		SpringState state = new SpringState(x, y, z, spring);
+		state.nextTick = world.getTotalWorldTime() + spring.getTickRate();
+		springs.springs.add(pos, state);
+		getChunkSprings(springs, x >> 4, z >> 4, true).add(state);
+		springs.active.add(state);
+	}
+
+	public void unregister(World world, int x, int y, int z) {
+		WorldSprings springs = this.worlds.get(world);
+		if (springs == null) {
+			return;
+		}
+		SpringState state = (SpringState)springs.springs.remove(PackedBlockPos.pack(x, y, z));
+		if (state != null) {
+			state.removed = true;
+			getChunkSprings(springs, x >> 4, z >> 4, false).remove(state);
+		}
+	}
+
+	public int getSpringCount(World world) {
+		WorldSprings springs = this.worlds.get(world);
+		return springs == null ? 0 : springs.springs.getNumHashElements();
+	}
+
+	/* Number of springs that were due, and ticked, during the last world tick */
+	public int getSpringsPerTick(World world) {
+		WorldSprings springs = this.worlds.get(world);
+		return springs == null ? 0 : springs.lastTicked;
+	}
+
+	/* Number of fluid blocks produced by springs of the given type since the world was loaded */
+	public long getOutput(World world, Spring spring) {
+		WorldSprings springs = this.worlds.get(world);
+		Long output = springs == null ? null : springs.output.get(spring);
+		return output == null ? 0 : output;
+	}
+
+	@SubscribeEvent
+	public void onWorldTick(WorldTickEvent event) {
+		if (event.phase != Phase.END || event.world.isRemote) {
+			return;
+		}
+		WorldSprings springs = this.worlds.get(event.world);
+		if (springs == null) {
+			return;
+		}
+		long now = event.world.getTotalWorldTime();
+		springs.lastTicked = 0;
+		for (int visits = 0; visits < VISITS_PER_TICK && !springs.active.isEmpty(); visits++) {
+			if (springs.cursor >= springs.active.size()) {
+				springs.cursor = 0;
+			}
+			SpringState state = springs.active.get(springs.cursor);
+			if (state.removed) {
+				springs.active.remove(springs.cursor);
+				continue;
+			}
+			springs.cursor++;
+			if (now >= state.nextTick) {
+				state.nextTick = now + state.spring.getTickRate();
+				springs.lastTicked++;
+				this.assertSpring(event.world, springs, state);
+			}
+		}
+	}
+
+	private void assertSpring(World world, WorldSprings springs, SpringState state) {
+		Spring spring = state.spring;
+		if (spring.getChance() != -1 && world.rand.nextInt(spring.getChance()) != 0) {
+			return;
+		}
+		int x = state.x, z = state.z;
+		Block fluid = spring.getFluidBlock();
+		if (state.topY == UNKNOWN) {
+			int nextY;
+			for (nextY = state.y + 1; nextY < world.getActualHeight() && world.getBlock(x, nextY, z) == fluid; nextY++) { }
+			state.topY = nextY - 1;
+		}
+		int curY = state.topY;
+		int nextY = curY + 1;
+		if (nextY >= world.getActualHeight()) {
+			return;
+		}
+		Block block = world.getBlock(x, nextY, z);
+		boolean seepable = block.getMaterial() == Material.air || block instanceof BlockFalling;
+		boolean canSpring = seepable &&
+								(state.y == curY ||
+									(world.getBlock(x+1, curY, z).getMaterial().isSolid() &&
+									 world.getBlock(x-1, curY, z).getMaterial().isSolid() &&
+									 world.getBlock(x, curY, z+1).getMaterial().isSolid() &&
+									 world.getBlock(x, curY, z-1).getMaterial().isSolid()));
+		if (canSpring) {
+			world.setBlock(x, nextY, z, fluid);
+			state.topY = nextY;
+			Long output = springs.output.get(spring);
+			springs.output.put(spring, output == null ? 1 : output + 1);
+		}
+	}
+
+	private void onBlockChanged(World world, int x, int y, int z) {
+		WorldSprings springs = this.worlds.get(world);
+		List<SpringState> chunk = springs == null ? null : getChunkSprings(springs, x >> 4, z >> 4, false);
+		if (chunk == null) {
+			return;
+		}
+		for (SpringState state : chunk) {
+			if (state.x == x && state.z == z && y > state.y) {
+				state.topY = UNKNOWN;
+			}
+		}
+	}
+
+	@SubscribeEvent
+	public void onWorldLoad(WorldEvent.Load event) {
+		if (!event.world.isRemote) {
+			event.world.addWorldAccess(new SpringListener(event.world));
+		}
+	}
+
+	@SubscribeEvent
+	public void onChunkDataLoad(ChunkDataEvent.Load event) {
+		Chunk chunk = event.getChunk();
+		if (chunk.worldObj.isRemote || !event.getData().hasKey(NBT_KEY)) {
+			return;
+		}
+		for (int index : event.getData().getIntArray(NBT_KEY)) {
+			int x = index & 15, z = index >> 4 & 15, y = index >> 8;
+			Block block = chunk.getBlock(x, y, z);
+			if (block instanceof SpringBlock) {
+				Spring spring = ((SpringBlock)block).getSpring(chunk.getBlockMetadata(x, y, z));
+				this.register(chunk.worldObj, (chunk.xPosition << 4) + x, y, (chunk.zPosition << 4) + z, spring);
+			}
+		}
+	}
+
+	/* Chunks are saved after they are unloaded, so we hold on to their springs until then */
+	@SuppressWarnings("unchecked")
+	@SubscribeEvent
+	public void onChunkDataSave(ChunkDataEvent.Save event) {
+		Chunk chunk = event.getChunk();
+		WorldSprings springs = this.worlds.get(chunk.worldObj);
+		if (springs == null) {
+			return;
+		}
+		List<SpringState> states = getChunkSprings(springs, chunk.xPosition, chunk.zPosition, false);
+		if (states == null) {
+			states = (List<SpringState>)springs.unloading.remove(ChunkCoordIntPair.chunkXZ2Int(chunk.xPosition, chunk.zPosition));
+		}
+		if (states == null || states.isEmpty()) {
+			return;
+		}
+		int[] indices = new int[states.size()];
+		for (int i = 0; i < indices.length; i++) {
+			SpringState state = states.get(i);
+			indices[i] = state.y << 8 | (state.z & 15) << 4 | (state.x & 15);
+		}
+		NBTTagCompound data = event.getData();
+		data.setIntArray(NBT_KEY, indices);
+	}
+
+	@SuppressWarnings("unchecked")
+	@SubscribeEvent
+	public void onChunkUnload(ChunkEvent.Unload event) {
+		Chunk chunk = event.getChunk();
+		WorldSprings springs = this.worlds.get(chunk.worldObj);
+		if (springs == null) {
+			return;
+		}
+		long key = ChunkCoordIntPair.chunkXZ2Int(chunk.xPosition, chunk.zPosition);
+		List<SpringState> states = (List<SpringState>)springs.chunks.remove(key);
+		if (states == null) {
+			return;
+		}
+		for (SpringState state : states) {
+			state.removed = true;
+			springs.springs.remove(PackedBlockPos.pack(state.x, state.y, state.z));
+		}
+		springs.unloading.add(key, states);
+	}
+
+	@SubscribeEvent
+	public void onWorldUnload(WorldEvent.Unload event) {
+		this.worlds.remove(event.world);
+	}
+
+	private class SpringListener extends WorldAccessAdapter {
+		private final World world;
+
+		public SpringListener(World world) {
+			this.world = world;
+		}
+
+		@Override
+		public void markBlockForUpdate(int x, int y, int z) {
+			onBlockChanged(this.world, x, y, z);
+		}
+	}
+}
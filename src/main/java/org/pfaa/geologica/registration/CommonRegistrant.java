@@ -9,6 +9,7 @@ public class CommonRegistrant implements Registrant {
 
 	@Override
 	public void preregister() {
+		HandlerRegistration.init();
 		BlockRegistration.init();
 		ItemRegistration.init();
 		OreRegistration.init();
@@ -30,6 +30,7 @@ public class DropRegistration {
 			registerOreDrop(drops, GeoMaterial.EMERALD, Items.emerald, 1, 0, 1.0F, true);
 			registerOreDrop(drops, GeoMaterial.REDSTONE, Items.redstone, 4, 2, 1.0F, false);
 		}
+		drops.compile();
 	}
 	
 	private static <T extends Enum<?> & IndustrialMaterial> void registerDropsOfItem(ChanceDropRegistry drops, 
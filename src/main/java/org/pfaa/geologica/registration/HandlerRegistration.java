@@ -0,0 +1,13 @@
+package org.pfaa.geologica.registration;
+
+import org.pfaa.geologica.fluid.SpringManager;
+
+import cpw.mods.fml.common.FMLCommonHandler;
+import net.minecraftforge.common.MinecraftForge;
+
+public class HandlerRegistration {
+	public static void init() {
+		MinecraftForge.EVENT_BUS.register(SpringManager.INSTANCE);
+		FMLCommonHandler.instance().bus().register(SpringManager.INSTANCE);
+	}
+}